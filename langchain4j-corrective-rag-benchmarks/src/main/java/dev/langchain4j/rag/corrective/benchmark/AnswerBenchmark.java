@@ -0,0 +1,77 @@
+package dev.langchain4j.rag.corrective.benchmark;
+
+import dev.langchain4j.rag.content.retriever.WebSearchContentRetriever;
+import dev.langchain4j.rag.corrective.internal.DefaultCorrectiveRag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end {@link DefaultCorrectiveRag#answer(String)}, on the relevant path ({@code relevanceRatio=1.0})
+ * and on the web search path ({@code relevanceRatio=0.0}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AnswerBenchmark {
+
+    @Param({"1.0", "0.0"})
+    public double relevanceRatio;
+
+    @Param({"0", "50"})
+    public int modelLatencyMillis;
+
+    @Param({"0"})
+    public int webSearchLatencyMillis;
+
+    @Param({"1"})
+    public int gradingConcurrency;
+
+    private final AtomicInteger questions = new AtomicInteger();
+    private DefaultCorrectiveRag correctiveRag;
+
+    @Setup
+    public void setUp() {
+        correctiveRag = DefaultCorrectiveRag.builder()
+                .documents(BenchmarkCorpus.documents(50, 20))
+                .chatLanguageModel(StubChatLanguageModel.builder()
+                        .latency(Duration.ofMillis(modelLatencyMillis))
+                        .relevanceRatio(relevanceRatio)
+                        .build())
+                .webSearchContentRetriever(WebSearchContentRetriever.builder()
+                        .webSearchEngine(StubWebSearchEngine.builder()
+                                .latency(Duration.ofMillis(webSearchLatencyMillis))
+                                .build())
+                        .maxResults(3)
+                        .build())
+                .gradingConcurrency(gradingConcurrency)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        correctiveRag.close();
+    }
+
+    @Benchmark
+    public String answer() {
+        String[] candidates = BenchmarkCorpus.QUESTIONS;
+        return correctiveRag.answer(candidates[questions.getAndIncrement() % candidates.length]);
+    }
+}
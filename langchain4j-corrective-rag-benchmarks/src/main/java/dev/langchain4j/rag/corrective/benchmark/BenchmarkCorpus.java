@@ -0,0 +1,54 @@
+package dev.langchain4j.rag.corrective.benchmark;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic documents about LLM agents, so benchmarks need no network.
+ */
+public class BenchmarkCorpus {
+
+    static final String[] QUESTIONS = {
+            "What are the types of agent memory?",
+            "How do agents plan complex tasks?",
+            "How do agents use external tools?",
+            "What is chain of thought prompting?"
+    };
+
+    private static final String[] SUBJECTS = {
+            "An agent", "The planner", "Short-term memory", "Long-term memory", "The tool router",
+            "Chain of thought", "Self-reflection", "The vector store", "A language model", "The retriever"
+    };
+    private static final String[] VERBS = {
+            "stores", "decomposes", "retrieves", "summarizes", "calls", "evaluates", "ranks", "rewrites"
+    };
+    private static final String[] OBJECTS = {
+            "past observations", "complex tasks into subgoals", "relevant embeddings", "external APIs",
+            "intermediate reasoning steps", "previous mistakes", "search results", "user questions"
+    };
+
+    private BenchmarkCorpus() {
+    }
+
+    public static List<Document> documents(int count, int sentencesPerDocument) {
+        Random random = new Random(42);
+        List<Document> documents = new ArrayList<>(count);
+        for (int d = 0; d < count; d++) {
+            StringBuilder text = new StringBuilder();
+            for (int s = 0; s < sentencesPerDocument; s++) {
+                text.append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append(' ')
+                        .append(VERBS[random.nextInt(VERBS.length)]).append(' ')
+                        .append(OBJECTS[random.nextInt(OBJECTS.length)]).append(" in step ").append(s).append(". ");
+                if (s % 5 == 4) {
+                    text.append("\n\n");
+                }
+            }
+            documents.add(Document.from(text.toString().trim(), Metadata.from("source", "doc-" + d)));
+        }
+        return documents;
+    }
+}
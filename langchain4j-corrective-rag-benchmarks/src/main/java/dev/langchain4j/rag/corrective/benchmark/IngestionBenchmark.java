@@ -0,0 +1,73 @@
+package dev.langchain4j.rag.corrective.benchmark;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.bge.small.en.v15.BgeSmallEnV15QuantizedEmbeddingModel;
+import dev.langchain4j.rag.content.retriever.WebSearchContentRetriever;
+import dev.langchain4j.rag.corrective.internal.DefaultCorrectiveRag;
+import dev.langchain4j.rag.corrective.store.IngestionReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion of {@code documents} through the default content retriever, i.e. building a {@link DefaultCorrectiveRag}
+ * from documents with the local BGE embedding model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({"200"})
+    public int documents;
+
+    @Param({"1", "4"})
+    public int ingestionParallelism;
+
+    @Param({"32"})
+    public int ingestionBatchSize;
+
+    private List<Document> corpus;
+    // Loading the ONNX model is not part of ingestion
+    private EmbeddingModel embeddingModel;
+    private WebSearchContentRetriever webSearchContentRetriever;
+
+    @Setup
+    public void setUp() {
+        corpus = BenchmarkCorpus.documents(documents, 20);
+        embeddingModel = new BgeSmallEnV15QuantizedEmbeddingModel();
+        webSearchContentRetriever = WebSearchContentRetriever.builder()
+                .webSearchEngine(StubWebSearchEngine.builder().build())
+                .build();
+    }
+
+    @Benchmark
+    public IngestionReport ingest() {
+        // Closed so the executors of each instance do not pile up across invocations
+        try (DefaultCorrectiveRag correctiveRag = DefaultCorrectiveRag.builder()
+                .documents(corpus)
+                .embeddingModel(embeddingModel)
+                .chatLanguageModel(StubChatLanguageModel.builder().build())
+                .webSearchContentRetriever(webSearchContentRetriever)
+                .ingestionParallelism(ingestionParallelism)
+                .ingestionBatchSize(ingestionBatchSize)
+                .build()) {
+            return correctiveRag.ingestionReport();
+        }
+    }
+}
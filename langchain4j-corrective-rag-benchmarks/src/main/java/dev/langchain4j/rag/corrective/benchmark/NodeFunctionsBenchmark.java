@@ -0,0 +1,126 @@
+package dev.langchain4j.rag.corrective.benchmark;
+
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.embedding.bge.small.en.v15.BgeSmallEnV15QuantizedEmbeddingModel;
+import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
+import dev.langchain4j.rag.content.retriever.WebSearchContentRetriever;
+import dev.langchain4j.rag.corrective.store.ParallelIngestor;
+import dev.langchain4j.rag.corrective.workflow.CorrectiveNodeFunctions;
+import dev.langchain4j.rag.corrective.workflow.CorrectiveStatefulBean;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each {@link CorrectiveNodeFunctions} step on its own, against a fresh state holding the same retrieved documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class NodeFunctionsBenchmark {
+
+    private static final String QUESTION = BenchmarkCorpus.QUESTIONS[0];
+
+    @Param({"1.0", "0.0"})
+    public double relevanceRatio;
+
+    @Param({"0"})
+    public int modelLatencyMillis;
+
+    @Param({"1"})
+    public int gradingBatchSize;
+
+    private ExecutorService executor;
+    private CorrectiveNodeFunctions nodeFunctions;
+    private List<String> retrievedDocuments;
+
+    @Setup
+    public void setUp() {
+        EmbeddingModel embeddingModel = new BgeSmallEnV15QuantizedEmbeddingModel();
+        InMemoryEmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
+        ParallelIngestor.builder()
+                .documentSplitter(DocumentSplitters.recursive(250, 0))
+                .embeddingModel(embeddingModel)
+                .build()
+                .ingest(BenchmarkCorpus.documents(50, 20), embeddingStore);
+        executor = Executors.newCachedThreadPool();
+        nodeFunctions = new CorrectiveNodeFunctions.Builder()
+                .withEmbeddingStoreContentRetriever(EmbeddingStoreContentRetriever.builder()
+                        .embeddingStore(embeddingStore)
+                        .embeddingModel(embeddingModel)
+                        .maxResults(3)
+                        .minScore(0.6)
+                        .build())
+                .withWebSearchContentRetriever(WebSearchContentRetriever.builder()
+                        .webSearchEngine(StubWebSearchEngine.builder().build())
+                        .maxResults(3)
+                        .build())
+                .withChatLanguageModel(StubChatLanguageModel.builder()
+                        .latency(Duration.ofMillis(modelLatencyMillis))
+                        .relevanceRatio(relevanceRatio)
+                        .build())
+                .withExecutor(executor)
+                .withGradingBatchSize(gradingBatchSize)
+                .build();
+        retrievedDocuments = nodeFunctions.retrieve(state()).getDocuments();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public CorrectiveStatefulBean retrieve() {
+        return nodeFunctions.retrieve(state());
+    }
+
+    @Benchmark
+    public CorrectiveStatefulBean gradeDocuments() {
+        return nodeFunctions.gradeDocuments(state());
+    }
+
+    @Benchmark
+    public CorrectiveStatefulBean transformQuery() {
+        return nodeFunctions.transformQuery(state());
+    }
+
+    @Benchmark
+    public CorrectiveStatefulBean webSearch() {
+        return nodeFunctions.webSearch(state());
+    }
+
+    @Benchmark
+    public CorrectiveStatefulBean generate() {
+        return nodeFunctions.generate(state());
+    }
+
+    private CorrectiveStatefulBean state() {
+        CorrectiveStatefulBean state = new CorrectiveStatefulBean();
+        state.setQuestion(QUESTION);
+        state.setDocuments(retrievedDocuments == null ? null : new ArrayList<>(retrievedDocuments));
+        return state;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.langchain4j.rag.corrective.benchmark;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.rag.corrective.store.ConcurrentEmbeddingStore;
+import dev.langchain4j.rag.corrective.store.HnswEmbeddingStore;
+import dev.langchain4j.rag.corrective.store.OffHeapEmbeddingStore;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency of the full scan, off-heap (float and int8) and HNSW stores for growing numbers of segments. Vectors are random mixtures
+ * of a few directions plus noise, so that, as with real embeddings, they have a low intrinsic dimension.
+ * The recall of the HNSW store against the full scan is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RetrievalBenchmark {
+
+    private static final int DIMENSION = 384;
+    private static final int DIRECTIONS = 16;
+    private static final int QUERIES = 100;
+
+    @Param({"1000", "10000", "20000"})
+    public int segments;
+
+    @Param({"scan", "offheap", "offheap-int8", "hnsw"})
+    public String store;
+
+    private EmbeddingStore<TextSegment> embeddingStore;
+    private List<Embedding> queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        float[][] directions = new float[DIRECTIONS][DIMENSION];
+        for (float[] direction : directions) {
+            for (int d = 0; d < DIMENSION; d++) {
+                direction[d] = (float) random.nextGaussian();
+            }
+        }
+        embeddingStore = store();
+        for (int i = 0; i < segments; i++) {
+            embeddingStore.add(embedding(random, directions), TextSegment.from("Segment " + i));
+        }
+        queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(embedding(random, directions));
+        }
+        if (embeddingStore instanceof HnswEmbeddingStore) {
+            System.out.println(((HnswEmbeddingStore) embeddingStore).recall(queries, 3));
+        }
+    }
+
+    @Benchmark
+    public List<EmbeddingMatch<TextSegment>> search() {
+        Embedding query = queries.get(next++ % QUERIES);
+        return embeddingStore.findRelevant(query, 3, 0.6);
+    }
+
+    private EmbeddingStore<TextSegment> store() {
+        switch (store) {
+            case "offheap":
+                return OffHeapEmbeddingStore.builder().quantized(false).build();
+            case "offheap-int8":
+                return OffHeapEmbeddingStore.builder().build();
+            case "hnsw":
+                return HnswEmbeddingStore.builder().seed(42L).build();
+            default:
+                return new ConcurrentEmbeddingStore();
+        }
+    }
+
+    private static Embedding embedding(Random random, float[][] directions) {
+        float[] vector = new float[DIMENSION];
+        for (float[] direction : directions) {
+            float weight = (float) random.nextGaussian();
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] += weight * direction[d];
+            }
+        }
+        for (int d = 0; d < DIMENSION; d++) {
+            vector[d] += 0.1f * (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+}
@@ -0,0 +1,115 @@
+package dev.langchain4j.rag.corrective.benchmark;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+
+/**
+ * Offline {@link ChatLanguageModel} answering the corrective workflow prompts after a fixed latency.
+ * <p>
+ * A document is graded as relevant when the hash of its text falls within {@code relevanceRatio},
+ * so the same document always gets the same grade, whether it is graded alone or in a batch.
+ * With a ratio of 1.0 every answer takes the relevant path, with 0.0 every answer falls back to web search.
+ */
+public class StubChatLanguageModel implements ChatLanguageModel {
+
+    private static final String DOCUMENT_START = "Here is the retrieved document:";
+    private static final String DOCUMENTS_START = "each one preceded by its index:";
+    private static final String QUESTION_START = "Here is the user question:";
+    private static final Pattern INDEXED_DOCUMENT = Pattern.compile("(?m)^\\[(\\d+)] ");
+
+    private final Duration latency;
+    private final double relevanceRatio;
+    private final String answer;
+
+    @Builder
+    public StubChatLanguageModel(Duration latency, Double relevanceRatio, String answer) {
+        this.latency = getOrDefault(latency, Duration.ZERO);
+        this.relevanceRatio = getOrDefault(relevanceRatio, 1.0);
+        this.answer = getOrDefault(answer, "Agents combine planning, memory and tool use.");
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        String prompt = messages.get(messages.size() - 1).text();
+        String text = respond(prompt);
+        sleep(latency);
+        return Response.from(AiMessage.from(text), new TokenUsage(tokens(prompt), tokens(text)));
+    }
+
+    private String respond(String prompt) {
+        if (prompt.contains(DOCUMENTS_START)) {
+            return gradeDocuments(between(prompt, DOCUMENTS_START, QUESTION_START));
+        }
+        if (prompt.contains(DOCUMENT_START)) {
+            return "{\"score\": \"" + grade(between(prompt, DOCUMENT_START, QUESTION_START)) + "\"}";
+        }
+        if (prompt.contains("question re-writer")) {
+            String question = between(prompt, "Here is the initial question:", "Improved question");
+            return "Latest research on: " + (question.endsWith(".") ? question.substring(0, question.length() - 1) : question);
+        }
+        return answer;
+    }
+
+    private String gradeDocuments(String documents) {
+        StringBuilder verdicts = new StringBuilder("[");
+        Matcher index = INDEXED_DOCUMENT.matcher(documents);
+        int start = -1;
+        int count = 0;
+        while (true) {
+            boolean found = index.find();
+            if (start >= 0) {
+                String document = documents.substring(start, found ? index.start() : documents.length());
+                if (count > 0) {
+                    verdicts.append(", ");
+                }
+                verdicts.append("{\"index\": ").append(count).append(", \"score\": \"").append(grade(document)).append("\"}");
+                count++;
+            }
+            if (!found) {
+                break;
+            }
+            start = index.end();
+        }
+        return verdicts.append("]").toString();
+    }
+
+    String grade(String document) {
+        int bucket = (document.trim().hashCode() & Integer.MAX_VALUE) % 10_000;
+        return bucket < relevanceRatio * 10_000 ? "yes" : "no";
+    }
+
+    private static String between(String text, String start, String end) {
+        int from = text.indexOf(start);
+        from = from < 0 ? 0 : from + start.length();
+        int to = text.indexOf(end, from);
+        return text.substring(from, to < 0 ? text.length() : to).trim();
+    }
+
+    private static int tokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    static void sleep(Duration latency) {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package dev.langchain4j.rag.corrective.benchmark;
+
+import dev.langchain4j.web.search.WebSearchEngine;
+import dev.langchain4j.web.search.WebSearchInformationResult;
+import dev.langchain4j.web.search.WebSearchOrganicResult;
+import dev.langchain4j.web.search.WebSearchRequest;
+import dev.langchain4j.web.search.WebSearchResults;
+import lombok.Builder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+
+/**
+ * Offline {@link WebSearchEngine} returning deterministic results, derived from the search terms, after a fixed latency.
+ */
+public class StubWebSearchEngine implements WebSearchEngine {
+
+    private final Duration latency;
+    private final int results;
+
+    @Builder
+    public StubWebSearchEngine(Duration latency, Integer results) {
+        this.latency = getOrDefault(latency, Duration.ZERO);
+        this.results = getOrDefault(results, 3);
+    }
+
+    @Override
+    public WebSearchResults search(WebSearchRequest webSearchRequest) {
+        String terms = webSearchRequest.searchTerms();
+        int count = Math.min(results, getOrDefault(webSearchRequest.maxResults(), results));
+        List<WebSearchOrganicResult> organicResults = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            organicResults.add(WebSearchOrganicResult.from(
+                    "Result " + i + " for " + terms,
+                    URI.create("https://example.com/search/" + (terms.hashCode() & Integer.MAX_VALUE) + "/" + i),
+                    "Snippet " + i + " about " + terms,
+                    "Web page " + i + " explains " + terms + " with examples and references to recent work."));
+        }
+        StubChatLanguageModel.sleep(latency);
+        return WebSearchResults.from(WebSearchInformationResult.from((long) count), organicResults);
+    }
+}
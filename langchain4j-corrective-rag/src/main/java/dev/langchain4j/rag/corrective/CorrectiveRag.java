@@ -2,8 +2,15 @@ package dev.langchain4j.rag.corrective;
 
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.output.Response;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.stream.Collectors.toList;
 
 public interface CorrectiveRag {
 
@@ -13,4 +20,43 @@ public interface CorrectiveRag {
     }
 
     AiMessage answer(UserMessage question);
+
+    default void answer(String question, StreamingResponseHandler<AiMessage> handler) {
+        ensureNotNull(question, "question");
+        answer(new UserMessage(question), handler);
+    }
+
+    /**
+     * Answers the question asynchronously, passing the generated answer to the handler.
+     * Implementations that support it stream the answer token by token, otherwise it arrives in a single call to {@code onNext}.
+     */
+    default void answer(UserMessage question, StreamingResponseHandler<AiMessage> handler) {
+        ensureNotNull(handler, "handler");
+        answerAsync(question).whenComplete((answer, error) -> {
+            if (error != null) {
+                handler.onError(error instanceof CompletionException ? error.getCause() : error);
+            } else {
+                handler.onNext(answer.text());
+                handler.onComplete(Response.from(answer));
+            }
+        });
+    }
+
+    default CompletableFuture<String> answerAsync(String question) {
+        ensureNotNull(question, "question");
+        return answerAsync(new UserMessage(question)).thenApply(AiMessage::text);
+    }
+
+    default CompletableFuture<AiMessage> answerAsync(UserMessage question) {
+        return CompletableFuture.supplyAsync(() -> answer(question));
+    }
+
+    /**
+     * Answers all questions concurrently, returning the answers in the same order as the questions.
+     */
+    default List<AiMessage> answerAll(List<UserMessage> questions) {
+        ensureNotNull(questions, "questions");
+        List<CompletableFuture<AiMessage>> answers = questions.stream().map(this::answerAsync).collect(toList());
+        return answers.stream().map(CompletableFuture::join).collect(toList());
+    }
 }
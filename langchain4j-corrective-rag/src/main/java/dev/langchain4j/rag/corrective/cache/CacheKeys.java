@@ -0,0 +1,16 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import java.util.Locale;
+
+final class CacheKeys {
+
+    private CacheKeys() {
+    }
+
+    /**
+     * Lower-cases the text and collapses whitespace, so trivially different texts share a cache entry.
+     */
+    static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
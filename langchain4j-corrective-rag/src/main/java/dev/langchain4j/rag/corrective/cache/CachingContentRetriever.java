@@ -0,0 +1,236 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.corrective.limit.CallType;
+import dev.langchain4j.rag.corrective.limit.Deadline;
+import dev.langchain4j.rag.corrective.limit.DeadlineExceededException;
+import dev.langchain4j.rag.query.Query;
+import lombok.Builder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Wraps a {@link ContentRetriever}, typically a web search one, so concurrent retrievals of the same query
+ * share a single in-flight call, and results are kept for {@code timeToLive} (not kept when it is not set).
+ * Queries are compared after lower-casing and collapsing whitespace.
+ * <p>
+ * Shared calls run on threads of this retriever, so interrupting or cancelling one caller never fails the others:
+ * that caller stops waiting, and the call completes for the rest. A call interrupted on its own thread is retried
+ * once by each of its callers.
+ */
+public class CachingContentRetriever implements ContentRetriever, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingContentRetriever.class);
+
+    private final ContentRetriever delegate;
+    private final Duration timeToLive;
+    private final int maxSize;
+    private final CacheStats stats = new CacheStats();
+    private final ConcurrentHashMap<String, CompletableFuture<List<Content>>> inFlight = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, CachedContents> cache;
+    // Daemon threads, idle ones exit after a minute
+    private final ExecutorService calls;
+
+    @Builder
+    public CachingContentRetriever(ContentRetriever delegate, Duration timeToLive, Integer maxSize) {
+        this.delegate = ensureNotNull(delegate, "delegate");
+        this.timeToLive = timeToLive;
+        this.maxSize = ensureGreaterThanZero(getOrDefault(maxSize, 1000), "maxSize");
+        this.cache = new LinkedHashMap<String, CachedContents>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedContents> eldest) {
+                if (size() > CachingContentRetriever.this.maxSize) {
+                    stats.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+        AtomicInteger threads = new AtomicInteger();
+        this.calls = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "corrective-rag-shared-retrieval-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public List<Content> retrieve(Query query) {
+        return retrieve(query, null);
+    }
+
+    /**
+     * Retrieves like {@link #retrieve(Query)}, waiting for the call at most until the deadline when it is not null.
+     *
+     * @throws DeadlineExceededException when the call does not complete before the deadline, it keeps running for other callers
+     */
+    public List<Content> retrieve(Query query, Deadline deadline) {
+        return retrieve(query, deadline, true);
+    }
+
+    private List<Content> retrieve(Query query, Deadline deadline, boolean retry) {
+        String key = CacheKeys.normalize(query.text());
+        List<Content> cached = cached(key);
+        if (cached != null) {
+            stats.recordHit();
+            stats.recordSavedCalls(1);
+            return cached;
+        }
+        CompletableFuture<List<Content>> call = new CompletableFuture<>();
+        CompletableFuture<List<Content>> existingCall = inFlight.putIfAbsent(key, call);
+        if (existingCall != null) {
+            // Same query already in flight, wait for its result
+            stats.recordHit();
+            stats.recordSavedCalls(1);
+            return await(existingCall, query, deadline, retry);
+        }
+        // The call in flight may have completed after the first lookup
+        List<Content> contents = cached(key);
+        if (contents != null) {
+            inFlight.remove(key, call);
+            call.complete(contents);
+            stats.recordHit();
+            stats.recordSavedCalls(1);
+            return contents;
+        }
+        stats.recordMiss();
+        try {
+            calls.execute(() -> call(key, query, call));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(e);
+        }
+        return await(call, query, deadline, retry);
+    }
+
+    private void call(String key, Query query, CompletableFuture<List<Content>> call) {
+        List<Content> contents;
+        try {
+            contents = Collections.unmodifiableList(new ArrayList<>(delegate.retrieve(query)));
+            cache(key, contents);
+        } catch (Throwable e) {
+            // Removed before completing, so callers retrying do not join the failed call
+            inFlight.remove(key, call);
+            if (isInterruption(e)) {
+                call.cancel(false);
+            } else {
+                call.completeExceptionally(e);
+            }
+            return;
+        }
+        inFlight.remove(key, call);
+        call.complete(contents);
+    }
+
+    // Waiting never cancels the call, other callers may be waiting for it too
+    private List<Content> await(CompletableFuture<List<Content>> call, Query query, Deadline deadline, boolean retry) {
+        try {
+            return deadline == null ? call.get() : call.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a shared retrieval", e);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(CallType.WEB_SEARCH, "Shared retrieval did not complete before the deadline");
+        } catch (CancellationException e) {
+            if (!retry) {
+                throw new RuntimeException("Shared retrieval was interrupted", e);
+            }
+            log.debug("Shared retrieval was interrupted, retrying it");
+            return retrieve(query, deadline, false);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static boolean isInterruption(Throwable e) {
+        // Clears the interrupt of the pooled thread
+        boolean interrupted = Thread.interrupted();
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException || cause instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return interrupted;
+    }
+
+    /**
+     * Retrieves from the delegate without joining the call in flight for the same query, e.g. to hedge a slow call.
+     * Results are still cached.
+     */
+    public List<Content> retrieveUnshared(Query query) {
+        String key = CacheKeys.normalize(query.text());
+        stats.recordMiss();
+        List<Content> contents = Collections.unmodifiableList(new ArrayList<>(delegate.retrieve(query)));
+        cache(key, contents);
+        return contents;
+    }
+
+    public CacheStats stats() {
+        return stats;
+    }
+
+    /**
+     * Stops the threads of the shared calls once the calls in flight complete. Later retrievals are rejected.
+     */
+    @Override
+    public void close() {
+        calls.shutdown();
+    }
+
+    private synchronized List<Content> cached(String key) {
+        CachedContents cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.expiresAt >= 0) {
+            cache.remove(key);
+            stats.recordEviction();
+            return null;
+        }
+        return cached.contents;
+    }
+
+    private synchronized void cache(String key, List<Content> contents) {
+        if (timeToLive != null && !timeToLive.isZero() && !timeToLive.isNegative()) {
+            cache.put(key, new CachedContents(contents, System.nanoTime() + timeToLive.toNanos()));
+        }
+    }
+
+    private static class CachedContents {
+
+        private final List<Content> contents;
+        private final long expiresAt;
+
+        private CachedContents(List<Content> contents, long expiresAt) {
+            this.contents = contents;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import lombok.Builder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Grade cache persisted to an append-only file, one {@code <key> <y|n>} line per grade.
+ * Grades are loaded into an {@link InMemoryGradeCache} on creation, so they survive restarts.
+ * <p>
+ * Grades are flushed every {@code flushEvery} grades (by default 64), on close, and on the next put once a second
+ * has passed since the last flush: the time is only checked on put, so the grades of a burst stay buffered until
+ * the next put, {@link #flush()} or close. A crash only loses the grades not flushed yet, graded again after the restart.
+ * The file is compacted on load when it holds duplicate, malformed or evicted lines, keeping the loaded grades only.
+ */
+public class FileGradeCache implements GradeCache, Flushable, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileGradeCache.class);
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final InMemoryGradeCache delegate;
+    private final int flushEvery;
+    private final BufferedWriter writer;
+    private int unflushed;
+    private long lastFlush = System.nanoTime();
+
+    @Builder
+    public FileGradeCache(Path file, Integer maxSize, Integer flushEvery) {
+        ensureNotNull(file, "file");
+        this.delegate = new InMemoryGradeCache(maxSize);
+        this.flushEvery = ensureGreaterThanZero(getOrDefault(flushEvery, 64), "flushEvery");
+        try {
+            if (Files.exists(file)) {
+                int lines = load(file);
+                if (lines > delegate.size()) {
+                    compact(file, lines);
+                }
+            } else if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Returns the number of lines read
+    private int load(Path file) throws IOException {
+        int lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                int separator = line.indexOf(' ');
+                if (separator > 0 && separator == line.length() - 2) {
+                    delegate.put(line.substring(0, separator), line.charAt(separator + 1) == 'y');
+                }
+            }
+        }
+        log.info("Loaded {} grades from {}", delegate.size(), file);
+        return lines;
+    }
+
+    private void compact(Path file, int lines) throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compacting");
+        Map<String, Boolean> grades = delegate.grades();
+        // Written from the least to the most recently used, so the next load keeps the same eviction order
+        try (BufferedWriter compactedWriter = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Boolean> grade : grades.entrySet()) {
+                write(compactedWriter, grade.getKey(), grade.getValue());
+            }
+        }
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.info("Compacted {} from {} to {} lines", file, lines, grades.size());
+    }
+
+    @Override
+    public Boolean get(String key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, boolean relevant) {
+        delegate.put(key, relevant);
+        try {
+            write(writer, key, relevant);
+            if (++unflushed >= flushEvery || System.nanoTime() - lastFlush >= FLUSH_INTERVAL_NANOS) {
+                flush();
+            }
+        } catch (IOException e) {
+            log.warn("Error writing grade to cache file", e);
+        }
+    }
+
+    private static void write(BufferedWriter writer, String key, boolean relevant) throws IOException {
+        writer.write(key);
+        writer.write(relevant ? " y" : " n");
+        writer.newLine();
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        writer.flush();
+        unflushed = 0;
+        lastFlush = System.nanoTime();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,46 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Caches the relevance grade of a document for a question, so the same pair is not graded twice.
+ */
+public interface GradeCache {
+
+    /**
+     * Returns the cached grade, or {@code null} when the pair has not been graded yet.
+     */
+    Boolean get(String key);
+
+    void put(String key, boolean relevant);
+
+    CacheStats stats();
+
+    /**
+     * Builds the cache key of a (question, document) pair graded by {@code grader}, e.g. the grading model and prompt,
+     * so grades of another model or prompt are not reused: a SHA-256 hash of the three texts,
+     * the question and document being lower-cased and with whitespace collapsed.
+     */
+    static String key(String grader, String question, String document) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(grader.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(CacheKeys.normalize(question).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(CacheKeys.normalize(document).getBytes(StandardCharsets.UTF_8));
+            char[] hexDigits = "0123456789abcdef".toCharArray();
+            byte[] hash = digest.digest();
+            char[] key = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                key[2 * i] = hexDigits[(hash[i] >> 4) & 0xf];
+                key[2 * i + 1] = hexDigits[hash[i] & 0xf];
+            }
+            return new String(key);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
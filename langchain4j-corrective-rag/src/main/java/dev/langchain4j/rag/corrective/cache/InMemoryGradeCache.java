@@ -0,0 +1,66 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import lombok.Builder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+
+/**
+ * Grade cache holding at most {@code maxSize} grades in memory, evicting the least recently used one.
+ */
+public class InMemoryGradeCache implements GradeCache {
+
+    private final int maxSize;
+    private final CacheStats stats = new CacheStats();
+    private final LinkedHashMap<String, Boolean> grades;
+
+    @Builder
+    public InMemoryGradeCache(Integer maxSize) {
+        this.maxSize = ensureGreaterThanZero(getOrDefault(maxSize, 10_000), "maxSize");
+        this.grades = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                if (size() > InMemoryGradeCache.this.maxSize) {
+                    stats.recordEviction();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Boolean get(String key) {
+        Boolean relevant = grades.get(key);
+        if (relevant == null) {
+            stats.recordMiss();
+        } else {
+            stats.recordHit();
+        }
+        return relevant;
+    }
+
+    @Override
+    public synchronized void put(String key, boolean relevant) {
+        grades.put(key, relevant);
+    }
+
+    public synchronized int size() {
+        return grades.size();
+    }
+
+    /**
+     * Returns a copy of the grades, from the least to the most recently used.
+     */
+    synchronized Map<String, Boolean> grades() {
+        return new LinkedHashMap<>(grades);
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats;
+    }
+}
@@ -0,0 +1,164 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureBetween;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Caches answers by the embedding of their question, so near-duplicate questions
+ * (cosine similarity above {@code similarityThreshold}) are answered without running the workflow.
+ * The cache holds at most {@code maxSize} answers, evicting the least recently used one,
+ * and drops answers older than {@code timeToLive} when it is set.
+ * <p>
+ * Lookups scan an immutable snapshot of the answers without locking, only writes are serialized and replace the snapshot.
+ */
+public class SemanticAnswerCache {
+
+    private final int maxSize;
+    private final double similarityThreshold;
+    private final Duration timeToLive;
+    private final CacheStats stats = new CacheStats();
+    // Orders the uses of the answers, for eviction
+    private final AtomicLong clock = new AtomicLong();
+    private volatile CachedAnswer[] entries = new CachedAnswer[0];
+
+    @Builder
+    public SemanticAnswerCache(Integer maxSize, Double similarityThreshold, Duration timeToLive) {
+        this.maxSize = ensureGreaterThanZero(getOrDefault(maxSize, 1000), "maxSize");
+        this.similarityThreshold = ensureBetween(getOrDefault(similarityThreshold, 0.95), -1.0, 1.0, "similarityThreshold");
+        this.timeToLive = timeToLive;
+    }
+
+    public Optional<AiMessage> get(Embedding questionEmbedding) {
+        ensureNotNull(questionEmbedding, "questionEmbedding");
+        float[] query = normalized(questionEmbedding.vector());
+        long now = System.nanoTime();
+        CachedAnswer best = null;
+        double bestSimilarity = similarityThreshold;
+        boolean expired = false;
+        for (CachedAnswer entry : entries) {
+            if (entry.isExpired(now)) {
+                expired = true;
+                continue;
+            }
+            double similarity = dot(query, entry.vector);
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                best = entry;
+            }
+        }
+        if (expired) {
+            removeExpired(now);
+        }
+        if (best == null) {
+            stats.recordMiss();
+            return Optional.empty();
+        }
+        best.lastUsed = clock.incrementAndGet();
+        stats.recordHit();
+        return Optional.of(best.answer);
+    }
+
+    public synchronized void put(Embedding questionEmbedding, AiMessage answer) {
+        ensureNotNull(questionEmbedding, "questionEmbedding");
+        ensureNotNull(answer, "answer");
+        long now = System.nanoTime();
+        long expiresAt = timeToLive == null ? Long.MAX_VALUE : now + timeToLive.toNanos();
+        List<CachedAnswer> kept = unexpired(now);
+        while (kept.size() >= maxSize) {
+            CachedAnswer leastRecentlyUsed = kept.get(0);
+            for (CachedAnswer entry : kept) {
+                if (entry.lastUsed < leastRecentlyUsed.lastUsed) {
+                    leastRecentlyUsed = entry;
+                }
+            }
+            kept.remove(leastRecentlyUsed);
+            stats.recordEviction();
+        }
+        kept.add(new CachedAnswer(normalized(questionEmbedding.vector()), answer, expiresAt, clock.incrementAndGet()));
+        entries = kept.toArray(new CachedAnswer[0]);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public synchronized void clear() {
+        entries = new CachedAnswer[0];
+    }
+
+    private synchronized void removeExpired(long now) {
+        entries = unexpired(now).toArray(new CachedAnswer[0]);
+    }
+
+    // Called with the lock held
+    private List<CachedAnswer> unexpired(long now) {
+        List<CachedAnswer> kept = new ArrayList<>(entries.length + 1);
+        for (CachedAnswer entry : entries) {
+            if (entry.isExpired(now)) {
+                stats.recordEviction();
+            } else {
+                kept.add(entry);
+            }
+        }
+        return kept;
+    }
+
+    public CacheStats stats() {
+        return stats;
+    }
+
+    private static float[] normalized(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = norm == 0 ? 0 : (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return -1;
+        }
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    private static class CachedAnswer {
+
+        private final float[] vector;
+        private final AiMessage answer;
+        private final long expiresAt;
+        private volatile long lastUsed;
+
+        private CachedAnswer(float[] vector, AiMessage answer, long expiresAt, long lastUsed) {
+            this.vector = vector;
+            this.answer = answer;
+            this.expiresAt = expiresAt;
+            this.lastUsed = lastUsed;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package dev.langchain4j.rag.corrective.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class CorrectiveExecutors {
+
+    private static final Logger log = LoggerFactory.getLogger(CorrectiveExecutors.class);
+
+    private CorrectiveExecutors() {
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when running on Java 21+,
+     * otherwise a cached pool of daemon platform threads.
+     */
+    static ExecutorService newDefaultExecutor() {
+        try {
+            Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not available, using a cached thread pool");
+            return Executors.newCachedThreadPool(daemonThreadFactory("corrective-rag-"));
+        }
+    }
+
+    static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -2,20 +2,47 @@ package dev.langchain4j.rag.corrective.internal;
 
 import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.Tokenizer;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.embedding.bge.small.en.v15.BgeSmallEnV15QuantizedEmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
 import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
 import dev.langchain4j.rag.content.retriever.WebSearchContentRetriever;
 import dev.langchain4j.rag.corrective.CorrectiveRag;
+import dev.langchain4j.rag.corrective.cache.CacheStats;
+import dev.langchain4j.rag.corrective.cache.CachingContentRetriever;
+import dev.langchain4j.rag.corrective.cache.GradeCache;
+import dev.langchain4j.rag.corrective.cache.SemanticAnswerCache;
+import dev.langchain4j.rag.corrective.limit.CallLimiter;
+import dev.langchain4j.rag.corrective.limit.Deadline;
+import dev.langchain4j.rag.corrective.metrics.CorrectiveRagListener;
+import dev.langchain4j.rag.corrective.metrics.CorrectiveRagMetrics;
+import dev.langchain4j.rag.corrective.metrics.WorkflowTrace;
+import dev.langchain4j.rag.corrective.replay.InteractionRecorder;
+import dev.langchain4j.rag.corrective.replay.ReplayLog;
+import dev.langchain4j.rag.corrective.store.Bm25Index;
+import dev.langchain4j.rag.corrective.store.ConcurrentEmbeddingStore;
+import dev.langchain4j.rag.corrective.store.EmbeddingSnapshot;
+import dev.langchain4j.rag.corrective.store.IngestedDocuments;
+import dev.langchain4j.rag.corrective.store.IngestionReport;
+import dev.langchain4j.rag.corrective.store.MappedEmbeddingStore;
+import dev.langchain4j.rag.corrective.store.ParallelIngestor;
+import dev.langchain4j.rag.corrective.store.ReadinessPolicy;
 import dev.langchain4j.rag.corrective.workflow.CorrectiveNodeFunctions;
 import dev.langchain4j.rag.corrective.workflow.CorrectiveStatefulBean;
+import dev.langchain4j.rag.corrective.workflow.SpeculativeFallback;
+import dev.langchain4j.rag.corrective.workflow.TriageStats;
+import dev.langchain4j.rag.corrective.workflow.UngradedDocumentPolicy;
+import dev.langchain4j.rag.corrective.workflow.WebSearchTimeoutPolicy;
 import dev.langchain4j.store.embedding.EmbeddingStore;
-import dev.langchain4j.store.embedding.EmbeddingStoreIngestor;
-import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
 import dev.langchain4j.workflow.DefaultStateWorkflow;
 import dev.langchain4j.workflow.WorkflowStateName;
 import dev.langchain4j.workflow.node.Conditional;
@@ -25,45 +52,230 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static dev.langchain4j.internal.Utils.getOrDefault;
 import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
 
-public class DefaultCorrectiveRag implements CorrectiveRag {
+public class DefaultCorrectiveRag implements CorrectiveRag, AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultCorrectiveRag.class);
 
+    private static final int DEFAULT_MAX_RESULTS = 3;
+    private static final double DEFAULT_MIN_SCORE = 0.6;
+    private static final int DEFAULT_MAX_SEGMENT_SIZE = 250;
+    private static final String RETRIEVE_NODE = "Retrieve Node";
+    private static final String GENERATE_NODE = "Generate Node";
+    private static final String GRADE_NODE = "Grade Node";
+    private static final String REWRITE_QUERY_NODE = "Re-Write Query Node";
+    private static final String WEB_SEARCH_NODE = "WebSearch Node";
+    private static final int DEFAULT_MAX_OVERLAP_SIZE = 0;
+
+    // Nodes and edges of the graph built by correctiveWorkflow, the same for every run, so the workflow image is rendered once
+    private static final String WORKFLOW_TOPOLOGY = String.join(", ",
+            RETRIEVE_NODE + " -> " + GRADE_NODE,
+            GRADE_NODE + " -> " + REWRITE_QUERY_NODE + " | " + GENERATE_NODE,
+            REWRITE_QUERY_NODE + " -> " + WEB_SEARCH_NODE,
+            WEB_SEARCH_NODE + " -> " + GENERATE_NODE,
+            GENERATE_NODE + " -> " + WorkflowStateName.END);
+
     private final EmbeddingStoreContentRetriever embeddingStoreContentRetriever;
-    private final WebSearchContentRetriever webSearchContentRetriever;
+    private final EmbeddingModel embeddingModel;
+    // Only set when using the default content retriever
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    // Only set when using the default content retriever with hybridRetrieval
+    private final Bm25Index lexicalIndex;
+    private final SemanticAnswerCache answerCache;
+    private final CachingContentRetriever webSearchContentRetriever;
     private final ChatLanguageModel chatLanguageModel;
+    private final StreamingChatLanguageModel streamingChatLanguageModel;
     private final Boolean stream;
     private final Boolean generateWorkflowImage;
     private final Path workflowImageOutputPath;
-    
+    // Workflow images are rendered once per graph topology, off the request threads
+    private final Map<String, CompletableFuture<Void>> workflowImages = new ConcurrentHashMap<>();
+    private final ExecutorService workflowImageExecutor;
+    private final ExecutorService executor;
+    // Only the default executor is shut down on close, a given one belongs to the caller
+    private final boolean ownsExecutor;
+    // Only set with backgroundIngestion
+    private final ExecutorService backgroundIngestionExecutor;
+    private final TriageStats triageStats;
+    private final CorrectiveRagMetrics metrics = new CorrectiveRagMetrics();
+    private final CorrectiveRagListener listener;
+    // Only set when using the default content retriever without snapshot
+    private final IngestedDocuments ingestedDocuments;
+    // Completes when the documents given at construction are ingested
+    private final CompletableFuture<IngestionReport> ingestion;
+    private final ReadinessPolicy readinessPolicy;
+    private final Duration answerTimeout;
+    private final InteractionRecorder interactionRecorder;
+    private final ReplayLog replayLog;
+    // Only set when documents are ingested at construction, or with the partial progress when the background ingestion failed
+    private volatile IngestionReport ingestionReport;
+    // Last progress of the background ingestion, reported when it fails
+    private volatile IngestionReport ingestionProgress;
+
+    // Node functions are stateless: they are built once and run against the state of each request
+    private final Function<CorrectiveStatefulBean, CorrectiveStatefulBean> retrieve;
+    private final Function<CorrectiveStatefulBean, CorrectiveStatefulBean> generate;
+    private final Function<CorrectiveStatefulBean, CorrectiveStatefulBean> gradeDocuments;
+    private final Function<CorrectiveStatefulBean, CorrectiveStatefulBean> rewriteQuery;
+    private final Function<CorrectiveStatefulBean, CorrectiveStatefulBean> webSearch;
 
     @Builder
     public DefaultCorrectiveRag(EmbeddingStoreContentRetriever embeddingStoreContentRetriever,
+                                EmbeddingModel embeddingModel,
+                                EmbeddingStore<TextSegment> embeddingStore,
                                 WebSearchContentRetriever webSearchContentRetriever,
                                 ChatLanguageModel chatLanguageModel,
+                                StreamingChatLanguageModel streamingChatLanguageModel,
                                 List<Document> documents,
                                 Boolean stream,
                                 Boolean generateWorkflowImage,
-                                Path workflowImageOutputPath
+                                Path workflowImageOutputPath,
+                                Integer gradingConcurrency,
+                                Integer gradingBatchSize,
+                                ExecutorService executor,
+                                SemanticAnswerCache answerCache,
+                                GradeCache gradeCache,
+                                String gradingModelName,
+                                Duration webSearchCacheTtl,
+                                Integer webSearchCacheMaxSize,
+                                Path embeddingSnapshotDirectory,
+                                Integer ingestionBatchSize,
+                                Integer ingestionParallelism,
+                                Consumer<IngestionReport> ingestionProgressListener,
+                                SpeculativeFallback speculativeFallback,
+                                Double autoAcceptScore,
+                                Double autoRejectScore,
+                                CorrectiveRagListener listener,
+                                Integer contextTokenBudget,
+                                Tokenizer tokenizer,
+                                CallLimiter callLimiter,
+                                Boolean hybridRetrieval,
+                                Boolean backgroundIngestion,
+                                ReadinessPolicy readinessPolicy,
+                                Duration answerTimeout,
+                                Duration hedgeDelay,
+                                UngradedDocumentPolicy ungradedDocumentPolicy,
+                                WebSearchTimeoutPolicy webSearchTimeoutPolicy,
+                                InteractionRecorder interactionRecorder,
+                                ReplayLog replayLog,
+                                Double replayLatencyScale
                                 ) {
-        if (documents.isEmpty() && embeddingStoreContentRetriever == null) {
+        if ((documents == null || documents.isEmpty()) && embeddingStoreContentRetriever == null) {
             throw new IllegalArgumentException("documents or embeddingStoreContentRetriever must be provided");
         }
-        this.embeddingStoreContentRetriever = ensureNotNull(
-                getOrDefault(embeddingStoreContentRetriever, DefaultCorrectiveRag.defaultContentRetriever(documents)),
-                "embeddingStoreContentRetriever"
-        );
-        this.webSearchContentRetriever = ensureNotNull(webSearchContentRetriever, "webSearchContentRetriever");
-        this.chatLanguageModel = ensureNotNull(chatLanguageModel, "chatLanguageModel");
+        // Built-in metrics are always recorded, the given listener receives the same events, including a failed background ingestion
+        this.listener = CorrectiveRagListener.of(metrics, listener);
+        if (embeddingStoreContentRetriever != null) {
+            this.embeddingModel = embeddingModel;
+            this.embeddingStore = null;
+            this.lexicalIndex = null;
+            this.ingestedDocuments = null;
+            this.ingestion = CompletableFuture.completedFuture(null);
+            this.backgroundIngestionExecutor = null;
+            this.embeddingStoreContentRetriever = embeddingStoreContentRetriever;
+        } else {
+            this.embeddingModel = getOrDefault(embeddingModel, BgeSmallEnV15QuantizedEmbeddingModel::new);
+            ParallelIngestor ingestor = ParallelIngestor.builder()
+                    .documentSplitter(DocumentSplitters.recursive(DEFAULT_MAX_SEGMENT_SIZE, DEFAULT_MAX_OVERLAP_SIZE))
+                    .embeddingModel(this.embeddingModel)
+                    .batchSize(ingestionBatchSize)
+                    .parallelism(ingestionParallelism)
+                    .progressListener(progress -> {
+                        this.ingestionProgress = progress;
+                        if (ingestionProgressListener != null) {
+                            ingestionProgressListener.accept(progress);
+                        }
+                    })
+                    .build();
+            // The lexical index is built from the same segments as the embedding store
+            this.lexicalIndex = getOrDefault(hybridRetrieval, false) ? new Bm25Index() : null;
+            if (embeddingSnapshotDirectory != null) {
+                if (embeddingStore != null) {
+                    throw new IllegalArgumentException("embeddingStore is not supported with embeddingSnapshotDirectory");
+                }
+                if (getOrDefault(backgroundIngestion, false)) {
+                    throw new IllegalArgumentException("backgroundIngestion is not supported with embeddingSnapshotDirectory");
+                }
+                this.embeddingStore = snapshotEmbeddingStore(documents, embeddingSnapshotDirectory, ingestor);
+                this.ingestedDocuments = null;
+                this.ingestion = CompletableFuture.completedFuture(ingestionReport);
+                this.backgroundIngestionExecutor = null;
+            } else {
+                // The store receives concurrent writes during ingestion and removals from removeDocuments
+                this.embeddingStore = getOrDefault(embeddingStore, ConcurrentEmbeddingStore::new);
+                this.ingestedDocuments = new IngestedDocuments(ingestor, this.embeddingStore, this.lexicalIndex);
+                if (getOrDefault(backgroundIngestion, false)) {
+                    this.backgroundIngestionExecutor = Executors.newSingleThreadExecutor(
+                            CorrectiveExecutors.daemonThreadFactory("corrective-rag-background-ingestion-"));
+                    this.ingestion = ingestInBackground(documents);
+                } else {
+                    this.backgroundIngestionExecutor = null;
+                    this.ingestionReport = ingestedDocuments.add(documents);
+                    this.ingestion = CompletableFuture.completedFuture(ingestionReport);
+                }
+            }
+            this.embeddingStoreContentRetriever = defaultContentRetriever();
+        }
+        if (answerCache != null && this.embeddingModel == null) {
+            throw new IllegalArgumentException("embeddingModel must be provided to use answerCache with a custom embeddingStoreContentRetriever");
+        }
+        this.answerCache = answerCache;
+        this.readinessPolicy = getOrDefault(readinessPolicy, ReadinessPolicy.WAIT);
+        if (interactionRecorder != null && replayLog != null) {
+            throw new IllegalArgumentException("interactionRecorder is not supported with replayLog");
+        }
+        this.interactionRecorder = interactionRecorder;
+        this.replayLog = replayLog;
+        ContentRetriever webSearch;
+        if (replayLog != null) {
+            // Recorded responses are served instead of calling the live services, which are only used for what was not recorded
+            double latencyScale = getOrDefault(replayLatencyScale, 1.0);
+            webSearch = replayLog.webSearchContentRetriever(latencyScale, webSearchContentRetriever);
+            this.chatLanguageModel = replayLog.chatLanguageModel(latencyScale, chatLanguageModel);
+            this.streamingChatLanguageModel = replayLog.streamingChatLanguageModel(latencyScale, streamingChatLanguageModel);
+        } else {
+            // Model calls and web searches are recorded by the nodes, above the hedged calls, streamed answers are never hedged
+            webSearch = ensureNotNull(webSearchContentRetriever, "webSearchContentRetriever");
+            this.chatLanguageModel = ensureNotNull(chatLanguageModel, "chatLanguageModel");
+            this.streamingChatLanguageModel = interactionRecorder != null && streamingChatLanguageModel != null
+                    ? interactionRecorder.recordingStreaming(streamingChatLanguageModel)
+                    : streamingChatLanguageModel;
+        }
+        // Identical concurrent web searches share one call, results are kept for webSearchCacheTtl when set
+        this.webSearchContentRetriever = CachingContentRetriever.builder()
+                .delegate(webSearch)
+                .timeToLive(webSearchCacheTtl)
+                .maxSize(webSearchCacheMaxSize)
+                .build();
         this.stream = getOrDefault(stream, false);
+        this.ownsExecutor = executor == null;
+        this.executor = getOrDefault(executor, CorrectiveExecutors::newDefaultExecutor);
+        if (answerTimeout != null && (answerTimeout.isZero() || answerTimeout.isNegative())) {
+            throw new IllegalArgumentException("answerTimeout must be positive");
+        }
+        this.answerTimeout = answerTimeout;
 
         // Check if workflowOutputPath is valid
         if (workflowImageOutputPath != null) {
@@ -73,66 +285,329 @@ public class DefaultCorrectiveRag implements CorrectiveRag {
             this.workflowImageOutputPath = null;
             this.generateWorkflowImage = getOrDefault(generateWorkflowImage, false);
         }
+        this.workflowImageExecutor = this.generateWorkflowImage
+                ? Executors.newSingleThreadExecutor(CorrectiveExecutors.daemonThreadFactory("corrective-rag-workflow-image-"))
+                : null;
 
+        // Create wrapper functions for nodes
+        CorrectiveNodeFunctions cwf = new CorrectiveNodeFunctions.Builder()
+                .withEmbeddingStoreContentRetriever(this.embeddingStoreContentRetriever)
+                .withEmbeddingStore(this.embeddingStore)
+                .withEmbeddingModel(this.embeddingModel)
+                .withLexicalIndex(this.lexicalIndex)
+                .withMaxResults(DEFAULT_MAX_RESULTS)
+                .withMinScore(DEFAULT_MIN_SCORE)
+                .withChatLanguageModel(this.chatLanguageModel)
+                .withStreamingChatLanguageModel(this.streamingChatLanguageModel)
+                .withWebSearchContentRetriever(this.webSearchContentRetriever)
+                .withExecutor(this.executor)
+                .withGradingConcurrency(gradingConcurrency)
+                .withGradingBatchSize(gradingBatchSize)
+                .withGradeCache(gradeCache)
+                // Named after the given model, the models wrapped for recording or replay are lambdas named differently on each run
+                .withGradingModelName(getOrDefault(gradingModelName, chatLanguageModel == null ? null : chatLanguageModel.getClass().getName()))
+                .withSpeculativeFallback(speculativeFallback)
+                .withAutoAcceptScore(autoAcceptScore)
+                .withAutoRejectScore(autoRejectScore)
+                .withListener(this.listener)
+                .withContextTokenBudget(contextTokenBudget)
+                .withTokenizer(tokenizer)
+                .withCallLimiter(callLimiter)
+                .withHedgeDelay(hedgeDelay)
+                .withUngradedDocumentPolicy(ungradedDocumentPolicy)
+                .withWebSearchTimeoutPolicy(webSearchTimeoutPolicy)
+                .withInteractionRecorder(interactionRecorder)
+                .build();
+        this.triageStats = cwf.triageStats();
+        // Define functions for nodes, timed per run
+        this.retrieve = cwf::retrieve;
+        this.generate = cwf::generate;
+        this.gradeDocuments = cwf::gradeDocuments;
+        this.rewriteQuery = cwf::transformQuery;
+        this.webSearch = cwf::webSearch;
     }
 
     @Override
     public AiMessage answer(UserMessage question) {
         // Define a stateful bean
-        CorrectiveStatefulBean statefulBean = new CorrectiveStatefulBean();
-        statefulBean.setQuestion(question.singleText()); // What are the types of agent memory?
+        CorrectiveStatefulBean statefulBean = withQuestion(question.singleText()); // What are the types of agent memory?
+
+        Embedding questionEmbedding = embed(statefulBean.getQuestion());
+        AiMessage cachedAnswer = cachedAnswer(questionEmbedding);
+        if (cachedAnswer != null) {
+            return cachedAnswer;
+        }
+        return answer(statefulBean, questionEmbedding);
+    }
+
+    @Override
+    public void answer(UserMessage question, StreamingResponseHandler<AiMessage> handler) {
+        if (streamingChatLanguageModel == null) {
+            CorrectiveRag.super.answer(question, handler);
+            return;
+        }
+        ensureNotNull(question, "question");
+        ensureNotNull(handler, "handler");
+        CorrectiveStatefulBean statefulBean = withQuestion(question.singleText());
+        executor.execute(() -> {
+            AiMessage answer;
+            try {
+                Embedding questionEmbedding = embed(statefulBean.getQuestion());
+                answer = cachedAnswer(questionEmbedding);
+                if (answer != null) {
+                    handler.onNext(answer.text());
+                } else {
+                    statefulBean.setStreamingHandler(handler);
+                    answer = answer(statefulBean, questionEmbedding);
+                }
+            } catch (Exception e) {
+                handler.onError(e);
+                return;
+            }
+            handler.onComplete(Response.from(answer));
+        });
+    }
+
+    @Override
+    public CompletableFuture<AiMessage> answerAsync(UserMessage question) {
+        ensureNotNull(question, "question");
+        return CompletableFuture.supplyAsync(() -> answer(question), executor);
+    }
+
+    @Override
+    public List<AiMessage> answerAll(List<UserMessage> questions) {
+        ensureNotNull(questions, "questions");
+        // Coalesce identical questions
+        Map<String, Integer> uniqueIndexes = new HashMap<>();
+        List<String> uniqueQuestions = new ArrayList<>();
+        int[] slots = new int[questions.size()];
+        for (int i = 0; i < questions.size(); i++) {
+            String question = questions.get(i).singleText();
+            Integer index = uniqueIndexes.get(question.trim());
+            if (index == null) {
+                index = uniqueQuestions.size();
+                uniqueIndexes.put(question.trim(), index);
+                uniqueQuestions.add(question);
+            }
+            slots[i] = index;
+        }
+        log.info("Answering {} questions ({} distinct)", questions.size(), uniqueQuestions.size());
+
+        // Embed all questions in a single call, when the embeddings can be reused
+        List<Embedding> embeddings = null;
+        if (embeddingModel != null && (answerCache != null || embeddingStore != null)) {
+            List<TextSegment> segments = uniqueQuestions.stream().map(TextSegment::from).collect(toList());
+            embeddings = embeddingModel.embedAll(segments).content();
+        }
+
+        awaitReadiness();
+        // Run the workflow of each question not answered from cache, its retrieve node reusing the question embedding
+        List<CompletableFuture<AiMessage>> answers = new ArrayList<>(uniqueQuestions.size());
+        for (int i = 0; i < uniqueQuestions.size(); i++) {
+            String question = uniqueQuestions.get(i);
+            Embedding questionEmbedding = embeddings == null ? null : embeddings.get(i);
+            AiMessage cachedAnswer = cachedAnswer(questionEmbedding);
+            if (cachedAnswer != null) {
+                answers.add(CompletableFuture.completedFuture(cachedAnswer));
+                continue;
+            }
+            answers.add(CompletableFuture.supplyAsync(() -> answer(withQuestion(question), questionEmbedding), executor));
+        }
+        List<AiMessage> results = new ArrayList<>(questions.size());
+        for (int slot : slots) {
+            results.add(join(answers.get(slot)));
+        }
+        return results;
+    }
+
+    /**
+     * Shuts down the threads started by this instance: the default executor when none was given, the shared web search
+     * calls and workflow image rendering, once their tasks complete, and interrupts the background ingestion, if running.
+     * A given executor, caches, recorder and stores are left open.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+        if (workflowImageExecutor != null) {
+            workflowImageExecutor.shutdown();
+        }
+        if (backgroundIngestionExecutor != null) {
+            backgroundIngestionExecutor.shutdownNow();
+        }
+        webSearchContentRetriever.close();
+    }
+
+    public SemanticAnswerCache answerCache() {
+        return answerCache;
+    }
+
+    /**
+     * Returns the replayed recording, e.g. to compare its recorded latencies and the number of calls it could not serve, or null.
+     */
+    public ReplayLog replayLog() {
+        return replayLog;
+    }
+
+    public CacheStats webSearchCacheStats() {
+        return webSearchContentRetriever.stats();
+    }
+
+    /**
+     * Returns the metrics recorded since this instance was built: node and model call latencies, tokens,
+     * document counts and web search fallback rate.
+     */
+    public CorrectiveRagMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the documents accepted or rejected from their retrieval score, and the grading calls saved.
+     */
+    public TriageStats triageStats() {
+        return triageStats;
+    }
+
+    /**
+     * Returns the report of the ingestion of {@code documents}, or null when using a custom content retriever or a stored snapshot,
+     * or while the documents are ingested in the background. When the background ingestion failed, it returns the progress
+     * reported before the failure, which is not {@link IngestionReport#isComplete() complete}, or null if no batch was ingested.
+     */
+    public IngestionReport ingestionReport() {
+        return ingestionReport;
+    }
+
+    /**
+     * Returns a future completed when the {@code documents} given at construction are ingested,
+     * right away unless {@code backgroundIngestion} is enabled.
+     */
+    public CompletableFuture<IngestionReport> ready() {
+        return ingestion;
+    }
+
+    /**
+     * Tells whether the {@code documents} given at construction are all ingested, false while ingesting or if the ingestion failed.
+     */
+    public boolean isReady() {
+        return ingestion.isDone() && !ingestion.isCompletedExceptionally();
+    }
+
+    /**
+     * Embeds the documents not ingested yet, without re-ingesting the others. It waits for the background ingestion, if any.
+     */
+    public IngestionReport addDocuments(List<Document> documents) {
+        return ingestedDocuments("addDocuments").add(documents);
+    }
+
+    /**
+     * Removes the documents, identified by their text and metadata, and returns the number of documents removed.
+     * To update a document, remove its previous version and add the new one.
+     */
+    public int removeDocuments(List<Document> documents) {
+        return ingestedDocuments("removeDocuments").remove(documents);
+    }
+
+    private Embedding embed(String question) {
+        return answerCache != null ? embeddingModel.embed(question).content() : null;
+    }
+
+    private AiMessage cachedAnswer(Embedding questionEmbedding) {
+        if (answerCache == null || questionEmbedding == null) {
+            return null;
+        }
+        AiMessage cachedAnswer = answerCache.get(questionEmbedding).orElse(null);
+        if (cachedAnswer != null) {
+            log.info("Answer found in cache");
+        }
+        return cachedAnswer;
+    }
 
+    private AiMessage answer(CorrectiveStatefulBean statefulBean, Embedding questionEmbedding) {
+        awaitReadiness();
+        // The retrieve node reuses the question embedding to search the default store
+        statefulBean.setQuestionEmbedding(questionEmbedding);
+        AiMessage answer = run(statefulBean);
+        // Answers degraded by the deadline would be served to later questions with a full budget
+        if (answerCache != null && questionEmbedding != null && !statefulBean.isDegraded()) {
+            answerCache.put(questionEmbedding, answer);
+        }
+        return answer;
+    }
+
+    private AiMessage run(CorrectiveStatefulBean statefulBean) {
+        long start = System.nanoTime();
+        Instant startedAt = Instant.now();
+        String question = statefulBean.getQuestion();
         // Build corrective workflow
-        DefaultStateWorkflow<CorrectiveStatefulBean> wf = correctiveWorkflow(statefulBean);
+        WorkflowTrace trace = new WorkflowTrace();
+        DefaultStateWorkflow<CorrectiveStatefulBean> wf = correctiveWorkflow(statefulBean, trace);
 
         // Run workflow in stream mode or not
         if (stream) {
             log.info("Running workflow in stream mode...");
             wf.runStream(node -> {
-                log.debug("Processing node: " + node.getName());
+                log.debug("Processing node: {}", node.getName());
             });
         } else {
             log.info("Running workflow in normal mode...");
             wf.run();
         }
 
-        // Print transitions
-        log.debug("Transitions: \n" + wf.prettyTransitions() + "\n");
+        // Print transitions, only formatted when debug is enabled
+        log.debug("Transitions: \n{}", trace);
 
         // Print generate final answer
         String finalAnswer = statefulBean.getGeneration();
-        log.info("Final Answer: \n" + finalAnswer);
+        log.info("Final Answer: \n{}", finalAnswer);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        listener.onAnswer(elapsed, "Yes".equals(statefulBean.getWebSearch()));
+        listener.onTrace(trace);
+        if (interactionRecorder != null) {
+            interactionRecorder.recordAnswer(question, finalAnswer, startedAt, elapsed);
+        }
 
-        // Generate workflow image
+        // Generate workflow image, once per graph
         if (generateWorkflowImage) {
-            try {
-                generateWorkflowImage(wf);
-            } catch (Exception e) {
-                log.warn("Error generating workflow image", e);
-            }
+            workflowImages.computeIfAbsent(WORKFLOW_TOPOLOGY, topology -> CompletableFuture.runAsync(() -> {
+                try {
+                    generateWorkflowImage(wf);
+                } catch (Exception e) {
+                    log.warn("Error generating workflow image", e);
+                }
+            }, workflowImageExecutor));
         }
         return AiMessage.from(finalAnswer);
     }
 
-    private DefaultStateWorkflow<CorrectiveStatefulBean> correctiveWorkflow(CorrectiveStatefulBean statefulBean) {
-        // Create wrapper functions for nodes
-        CorrectiveNodeFunctions cwf = new CorrectiveNodeFunctions.Builder()
-                .withEmbeddingStoreContentRetriever(embeddingStoreContentRetriever)
-                .withChatLanguageModel(chatLanguageModel)
-                .withWebSearchContentRetriever(webSearchContentRetriever)
-                .build();
-        // Define functions for nodes
-        Function<CorrectiveStatefulBean, CorrectiveStatefulBean> retrieve = state -> cwf.retrieve(statefulBean);
-        Function<CorrectiveStatefulBean, CorrectiveStatefulBean> generate = state -> cwf.generate(statefulBean);
-        Function<CorrectiveStatefulBean, CorrectiveStatefulBean> gradeDocuments = state -> cwf.gradeDocuments(statefulBean);
-        Function<CorrectiveStatefulBean, CorrectiveStatefulBean> rewriteQuery = state -> cwf.transformQuery(statefulBean);
-        Function<CorrectiveStatefulBean, CorrectiveStatefulBean> webSearch = state -> cwf.webSearch(statefulBean);
-        // Create nodes
-        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> retrieveNode = Node.from("Retrieve Node", retrieve);
-        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> generateNode = Node.from("Generate Node", generate);
-        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> gradeDocumentsNode = Node.from("Grade Node", gradeDocuments);
-        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> rewriteQueryNode = Node.from("Re-Write Query Node", rewriteQuery);
-        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> webSearchNode = Node.from("WebSearch Node", webSearch);
+    // The deadline of the request starts with its state
+    private CorrectiveStatefulBean withQuestion(String question) {
+        CorrectiveStatefulBean statefulBean = new CorrectiveStatefulBean();
+        statefulBean.setQuestion(question);
+        if (answerTimeout != null) {
+            statefulBean.setDeadline(Deadline.after(answerTimeout));
+        }
+        return statefulBean;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private DefaultStateWorkflow<CorrectiveStatefulBean> correctiveWorkflow(CorrectiveStatefulBean statefulBean, WorkflowTrace trace) {
+        // Create nodes, they are created per run because the workflow tracks their execution
+        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> retrieveNode = Node.from(RETRIEVE_NODE, timed(RETRIEVE_NODE, retrieve, trace));
+        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> generateNode = Node.from(GENERATE_NODE, timed(GENERATE_NODE, generate, trace));
+        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> gradeDocumentsNode = Node.from(GRADE_NODE, timed(GRADE_NODE, gradeDocuments, trace));
+        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> rewriteQueryNode = Node.from(REWRITE_QUERY_NODE, timed(REWRITE_QUERY_NODE, rewriteQuery, trace));
+        Node<CorrectiveStatefulBean, CorrectiveStatefulBean> webSearchNode = Node.from(WEB_SEARCH_NODE, timed(WEB_SEARCH_NODE, webSearch, trace));
         // Build workflow as a graph
         DefaultStateWorkflow<CorrectiveStatefulBean> wf = DefaultStateWorkflow.<CorrectiveStatefulBean>builder()
                 .statefulBean(statefulBean)
@@ -157,30 +632,127 @@ public class DefaultCorrectiveRag implements CorrectiveRag {
         return wf;
     }
 
-    private static EmbeddingStoreContentRetriever defaultContentRetriever(List<Document> documents) {
-        EmbeddingModel embeddingModel = new BgeSmallEnV15QuantizedEmbeddingModel();
-        EmbeddingStore<TextSegment> embeddingStore = new InMemoryEmbeddingStore<>();
-        log.info("Using defaultContentRetriever, embeddingModel:{} embeddingStore:{}", embeddingModel.getClass().getName(), embeddingStore.getClass().getName());
-        EmbeddingStoreIngestor ingestor = EmbeddingStoreIngestor.builder()
-                .documentSplitter(DocumentSplitters.recursive(250, 0))
-                .embeddingModel(embeddingModel)
-                .embeddingStore(embeddingStore)
-                .build();
+    private Function<CorrectiveStatefulBean, CorrectiveStatefulBean> timed(String node,
+                                                                        Function<CorrectiveStatefulBean, CorrectiveStatefulBean> function,
+                                                                        WorkflowTrace trace) {
+        return state -> {
+            long start = System.nanoTime();
+            // The state is changed in place, so its input is captured before the node runs
+            Instant startedAt = interactionRecorder != null ? Instant.now() : null;
+            String input = interactionRecorder != null ? state.toString() : null;
+            try {
+                return function.apply(state);
+            } finally {
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                trace.record(node, elapsed);
+                listener.onNode(node, elapsed);
+                if (interactionRecorder != null) {
+                    interactionRecorder.recordNode(node, input, state.toString(), startedAt, elapsed);
+                }
+            }
+        };
+    }
+
+    private CompletableFuture<IngestionReport> ingestInBackground(List<Document> documents) {
+        log.info("Ingesting {} documents in the background", documents.size());
+        CompletableFuture<IngestionReport> ingestion = CompletableFuture.supplyAsync(() -> ingestedDocuments.add(documents), backgroundIngestionExecutor);
+        // Its thread exits once the documents are ingested
+        backgroundIngestionExecutor.shutdown();
+        ingestion.whenComplete((report, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                this.ingestionReport = ingestionProgress;
+                log.error("Background ingestion failed after {}", ingestionProgress, cause);
+                listener.onIngestionFailed(ingestionProgress, cause);
+            } else {
+                this.ingestionReport = report;
+            }
+        });
+        return ingestion;
+    }
 
-        ingestor.ingest(documents);
+    private void awaitReadiness() {
+        if (isReady()) {
+            return;
+        }
+        switch (readinessPolicy) {
+            case SERVE_PARTIAL:
+                log.debug("Answering on the documents ingested so far");
+                return;
+            case REJECT:
+                if (!ingestion.isDone()) {
+                    throw new IllegalStateException("Documents are still being ingested");
+                }
+                break;
+            default:
+                log.debug("Waiting for the ingestion to complete");
+        }
+        try {
+            ingestion.join();
+        } catch (CompletionException e) {
+            // Fail fast, the failure was already logged and reported to the listener once
+            throw new IllegalStateException("Background ingestion failed, questions are rejected", e.getCause());
+        }
+    }
+
+    private IngestedDocuments ingestedDocuments(String operation) {
+        if (ingestedDocuments == null) {
+            throw new UnsupportedOperationException(operation + " is only supported with the default content retriever without embeddingSnapshotDirectory");
+        }
+        return ingestedDocuments;
+    }
+
+    private EmbeddingStore<TextSegment> snapshotEmbeddingStore(List<Document> documents, Path directory, ParallelIngestor ingestor) {
+        // The snapshot is only valid for the same documents, splitter and embedding model
+        String fingerprint = EmbeddingSnapshot.fingerprint(
+                documents,
+                "recursive(" + DEFAULT_MAX_SEGMENT_SIZE + ", " + DEFAULT_MAX_OVERLAP_SIZE + ")",
+                embeddingModel.getClass().getName());
+        Path snapshot = directory.resolve(fingerprint + ".snapshot");
+        try {
+            if (Files.exists(snapshot)) {
+                log.info("Loading embedding snapshot {}", snapshot);
+            } else {
+                log.info("No embedding snapshot for these documents, ingesting them into {}", snapshot);
+                List<TextSegment> segments = new ArrayList<>();
+                List<Embedding> embeddings = new ArrayList<>();
+                this.ingestionReport = ingestor.ingest(documents, (batchEmbeddings, batchSegments) -> {
+                    synchronized (segments) {
+                        embeddings.addAll(batchEmbeddings);
+                        segments.addAll(batchSegments);
+                    }
+                });
+                List<String> ids = segments.stream().map(segment -> randomUUID().toString()).collect(toList());
+                EmbeddingSnapshot.write(snapshot, ids, embeddings, segments);
+            }
+            MappedEmbeddingStore store = MappedEmbeddingStore.load(snapshot);
+            if (lexicalIndex != null) {
+                lexicalIndex.add(store.segments());
+            }
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private EmbeddingStoreContentRetriever defaultContentRetriever() {
+        log.info("Using defaultContentRetriever, embeddingModel:{} embeddingStore:{}", embeddingModel.getClass().getName(), embeddingStore.getClass().getName());
         return EmbeddingStoreContentRetriever.builder()
                 .embeddingStore(embeddingStore)
                 .embeddingModel(embeddingModel)
-                .minScore(0.6)
+                .maxResults(DEFAULT_MAX_RESULTS)
+                .minScore(DEFAULT_MIN_SCORE)
                 .build();
     }
 
     private void generateWorkflowImage(DefaultStateWorkflow<CorrectiveStatefulBean> wf) throws IOException {
+        long start = System.nanoTime();
         if (workflowImageOutputPath != null) {
             wf.generateWorkflowImage(workflowImageOutputPath.toAbsolutePath().toString());
         } else {
             wf.generateWorkflowImage();
         }
+        log.info("Workflow image generated in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
     }
 
 }
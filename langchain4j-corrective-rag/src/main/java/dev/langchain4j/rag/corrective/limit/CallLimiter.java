@@ -0,0 +1,168 @@
+package dev.langchain4j.rag.corrective.limit;
+
+import lombok.Builder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Limits the concurrent calls to the chat language model and the web search engine.
+ * <p>
+ * Each {@link CallType} has its own pool of permits, and model calls also share {@code maxConcurrentModelCalls}
+ * permits, given to waiting calls by priority ({@code GENERATE}, then {@code REWRITE}, then {@code GRADE}),
+ * so requests in flight finish before new ones start grading. When {@code maxQueueDepth} calls of a type
+ * are already waiting, new calls of that type are rejected at once with a {@link CallRejectedException}
+ * instead of queueing behind a provider that can't keep up.
+ * <p>
+ * A limiter can be shared by several {@code CorrectiveRag} instances calling the same provider.
+ */
+public class CallLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(CallLimiter.class);
+
+    private static final int DEFAULT_MAX_CONCURRENT_MODEL_CALLS = 16;
+    private static final int DEFAULT_MAX_CONCURRENT_WEB_SEARCHES = 8;
+    private static final int DEFAULT_MAX_QUEUE_DEPTH = 100;
+
+    private final PriorityPermits modelPermits;
+    private final Map<CallType, Pool> pools = new EnumMap<>(CallType.class);
+    private final int maxQueueDepth;
+    private final long maxWaitNanos;
+
+    @Builder
+    public CallLimiter(Integer maxConcurrentModelCalls,
+                       Integer maxConcurrentGradeCalls,
+                       Integer maxConcurrentRewriteCalls,
+                       Integer maxConcurrentGenerateCalls,
+                       Integer maxConcurrentWebSearches,
+                       Integer maxQueueDepth,
+                       Duration maxWait) {
+        int modelCalls = ensureGreaterThanZero(getOrDefault(maxConcurrentModelCalls, DEFAULT_MAX_CONCURRENT_MODEL_CALLS), "maxConcurrentModelCalls");
+        this.modelPermits = new PriorityPermits(modelCalls, CallType.values().length);
+        pools.put(CallType.GRADE, new Pool(ensureGreaterThanZero(getOrDefault(maxConcurrentGradeCalls, modelCalls), "maxConcurrentGradeCalls")));
+        pools.put(CallType.REWRITE, new Pool(ensureGreaterThanZero(getOrDefault(maxConcurrentRewriteCalls, modelCalls), "maxConcurrentRewriteCalls")));
+        pools.put(CallType.GENERATE, new Pool(ensureGreaterThanZero(getOrDefault(maxConcurrentGenerateCalls, modelCalls), "maxConcurrentGenerateCalls")));
+        pools.put(CallType.WEB_SEARCH, new Pool(ensureGreaterThanZero(getOrDefault(maxConcurrentWebSearches, DEFAULT_MAX_CONCURRENT_WEB_SEARCHES), "maxConcurrentWebSearches")));
+        this.maxQueueDepth = ensureGreaterThanZero(getOrDefault(maxQueueDepth, DEFAULT_MAX_QUEUE_DEPTH), "maxQueueDepth");
+        // Calls wait for a permit as long as needed, unless maxWait is set
+        this.maxWaitNanos = maxWait == null ? -1 : maxWait.toNanos();
+    }
+
+    /**
+     * Runs {@code call} once a permit of its type (and a model permit for model calls) is available.
+     *
+     * @throws CallRejectedException if the queue of this type is full or no permit became available within maxWait
+     */
+    public <T> T call(CallType callType, Supplier<T> call) {
+        ensureNotNull(callType, "callType");
+        Pool pool = pools.get(callType);
+        if (pool.queued.incrementAndGet() > maxQueueDepth) {
+            pool.queued.decrementAndGet();
+            throw reject(pool, callType, maxQueueDepth + " " + callType + " calls are already queued");
+        }
+        boolean acquired;
+        try {
+            acquired = acquire(pool, callType, maxWaitNanos);
+        } finally {
+            pool.queued.decrementAndGet();
+        }
+        if (!acquired) {
+            throw reject(pool, callType, "No " + callType + " permit available within " + Duration.ofNanos(maxWaitNanos));
+        }
+        return run(pool, callType, call);
+    }
+
+    /**
+     * Runs {@code call} only when a permit of its type (and a model permit for model calls) is free right away,
+     * e.g. for a hedged duplicate, which must neither queue nor take a permit a queued call is waiting for.
+     * The call must return a non-null result.
+     *
+     * @return the result of the call, or empty when no permit was free and the call did not run; it is not counted as rejected
+     */
+    public <T> Optional<T> tryCall(CallType callType, Supplier<T> call) {
+        ensureNotNull(callType, "callType");
+        Pool pool = pools.get(callType);
+        if (!acquire(pool, callType, 0)) {
+            return Optional.empty();
+        }
+        return Optional.of(run(pool, callType, call));
+    }
+
+    // Takes a permit of the type, then a model permit for model calls, giving the first back when the second is not available
+    private boolean acquire(Pool pool, CallType callType, long timeoutNanos) {
+        long start = System.nanoTime();
+        boolean typePermit = false;
+        try {
+            typePermit = pool.permits.acquire(0, timeoutNanos);
+            if (typePermit && callType.isModelCall() && !modelPermits.acquire(callType.ordinal(), remaining(timeoutNanos, start))) {
+                pool.permits.release();
+                return false;
+            }
+            return typePermit;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (typePermit) {
+                pool.permits.release();
+            }
+            throw new RuntimeException("Interrupted while waiting for a " + callType + " permit", e);
+        }
+    }
+
+    private <T> T run(Pool pool, CallType callType, Supplier<T> call) {
+        pool.inFlight.incrementAndGet();
+        try {
+            return call.get();
+        } finally {
+            pool.inFlight.decrementAndGet();
+            if (callType.isModelCall()) {
+                modelPermits.release();
+            }
+            pool.permits.release();
+        }
+    }
+
+    public int inFlight(CallType callType) {
+        return pools.get(callType).inFlight.get();
+    }
+
+    public int queued(CallType callType) {
+        return pools.get(callType).queued.get();
+    }
+
+    public long rejected(CallType callType) {
+        return pools.get(callType).rejected.get();
+    }
+
+    private static long remaining(long timeoutNanos, long start) {
+        return timeoutNanos < 0 ? -1 : Math.max(0, timeoutNanos - (System.nanoTime() - start));
+    }
+
+    private static CallRejectedException reject(Pool pool, CallType callType, String reason) {
+        pool.rejected.incrementAndGet();
+        log.warn("Rejected {} call: {}", callType, reason);
+        return new CallRejectedException(callType, reason);
+    }
+
+    private static class Pool {
+
+        private final PriorityPermits permits;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong rejected = new AtomicLong();
+
+        private Pool(int permits) {
+            this.permits = new PriorityPermits(permits, 1);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.langchain4j.rag.corrective.limit;
+
+/**
+ * Thrown when a {@link CallLimiter} rejects a call, because too many calls of the same type are already queued
+ * or because no permit became available in time.
+ */
+public class CallRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CallType callType;
+
+    public CallRejectedException(CallType callType, String message) {
+        super(message);
+        this.callType = callType;
+    }
+
+    public CallType callType() {
+        return callType;
+    }
+}
@@ -0,0 +1,17 @@
+package dev.langchain4j.rag.corrective.limit;
+
+/**
+ * Calls to external services limited by a {@link CallLimiter}. Model calls are listed by increasing priority:
+ * generating the answer of a request in flight goes before rewriting, which goes before grading for new requests.
+ */
+public enum CallType {
+
+    GRADE,
+    REWRITE,
+    GENERATE,
+    WEB_SEARCH;
+
+    boolean isModelCall() {
+        return this != WEB_SEARCH;
+    }
+}
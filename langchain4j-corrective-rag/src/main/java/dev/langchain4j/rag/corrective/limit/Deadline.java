@@ -0,0 +1,40 @@
+package dev.langchain4j.rag.corrective.limit;
+
+import java.time.Duration;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Point in time by which a request must be answered, measured on the monotonic clock.
+ * It is carried by the state of the request, so every call made for it waits at most the time left.
+ */
+public final class Deadline {
+
+    private final long expiresAt;
+
+    private Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public static Deadline after(Duration timeout) {
+        ensureNotNull(timeout, "timeout");
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public long remainingNanos() {
+        return Math.max(0, expiresAt - System.nanoTime());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(remainingNanos());
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining().toMillis() + " ms}";
+    }
+}
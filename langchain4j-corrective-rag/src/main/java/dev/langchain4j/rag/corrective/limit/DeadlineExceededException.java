@@ -0,0 +1,20 @@
+package dev.langchain4j.rag.corrective.limit;
+
+/**
+ * Thrown when a call can't complete before the {@link Deadline} of its request.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CallType callType;
+
+    public DeadlineExceededException(CallType callType, String message) {
+        super(message);
+        this.callType = callType;
+    }
+
+    public CallType callType() {
+        return callType;
+    }
+}
@@ -0,0 +1,71 @@
+package dev.langchain4j.rag.corrective.limit;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counting semaphore where a waiter only gets a permit when no waiter of a higher priority is queued.
+ */
+class PriorityPermits {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final int[] waiting;
+    private int available;
+
+    PriorityPermits(int permits, int priorities) {
+        this.available = permits;
+        this.waiting = new int[priorities];
+    }
+
+    /**
+     * Waits for a permit until {@code timeoutNanos} elapse, or forever when negative. Returns false on timeout.
+     */
+    boolean acquire(int priority, long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            waiting[priority]++;
+            try {
+                long remaining = timeoutNanos;
+                while (available == 0 || higherPriorityWaiting(priority)) {
+                    if (timeoutNanos < 0) {
+                        changed.await();
+                    } else if (remaining <= 0) {
+                        return false;
+                    } else {
+                        remaining = changed.awaitNanos(remaining);
+                    }
+                }
+                available--;
+                return true;
+            } finally {
+                waiting[priority]--;
+                // Lower priority waiters may now go ahead
+                if (available > 0) {
+                    changed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release() {
+        lock.lock();
+        try {
+            available++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean higherPriorityWaiting(int priority) {
+        for (int i = priority + 1; i < waiting.length; i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+import dev.langchain4j.model.output.TokenUsage;
+import dev.langchain4j.rag.corrective.store.IngestionReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Forwards events to several listeners. A failing listener is logged and never fails the answer.
+ */
+class CompositeListener implements CorrectiveRagListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CompositeListener.class);
+
+    private final List<CorrectiveRagListener> listeners;
+
+    CompositeListener(List<CorrectiveRagListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void onNode(String node, Duration elapsed) {
+        forEach(listener -> listener.onNode(node, elapsed));
+    }
+
+    @Override
+    public void onModelCall(PromptType promptType, Duration latency, TokenUsage tokenUsage) {
+        forEach(listener -> listener.onModelCall(promptType, latency, tokenUsage));
+    }
+
+    @Override
+    public void onWebSearch(Duration latency, int results) {
+        forEach(listener -> listener.onWebSearch(latency, results));
+    }
+
+    @Override
+    public void onDocuments(DocumentStage stage, int count) {
+        forEach(listener -> listener.onDocuments(stage, count));
+    }
+
+    @Override
+    public void onAnswer(Duration elapsed, boolean webSearch) {
+        forEach(listener -> listener.onAnswer(elapsed, webSearch));
+    }
+
+    @Override
+    public void onTrace(WorkflowTrace trace) {
+        forEach(listener -> listener.onTrace(trace));
+    }
+
+    @Override
+    public void onIngestionFailed(IngestionReport progress, Throwable error) {
+        forEach(listener -> listener.onIngestionFailed(progress, error));
+    }
+
+    private void forEach(Consumer<CorrectiveRagListener> event) {
+        for (CorrectiveRagListener listener : listeners) {
+            if (listener == null) {
+                continue;
+            }
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                log.warn("CorrectiveRagListener {} failed", listener.getClass().getName(), e);
+            }
+        }
+    }
+}
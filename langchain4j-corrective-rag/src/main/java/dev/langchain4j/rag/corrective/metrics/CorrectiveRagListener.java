@@ -0,0 +1,63 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+import dev.langchain4j.model.output.TokenUsage;
+import dev.langchain4j.rag.corrective.store.IngestionReport;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Receives the events of each corrective workflow run. All methods do nothing by default.
+ * <p>
+ * Methods are called on the threads running the workflow, grading and web search, possibly concurrently,
+ * so implementations must be thread-safe and fast.
+ */
+public interface CorrectiveRagListener {
+
+    /**
+     * Called after a node of the workflow completes, successfully or not.
+     */
+    default void onNode(String node, Duration elapsed) {
+    }
+
+    /**
+     * Called after each chat language model call. {@code tokenUsage} is null when the model does not report it.
+     */
+    default void onModelCall(PromptType promptType, Duration latency, TokenUsage tokenUsage) {
+    }
+
+    /**
+     * Called after each web search.
+     */
+    default void onWebSearch(Duration latency, int results) {
+    }
+
+    default void onDocuments(DocumentStage stage, int count) {
+    }
+
+    /**
+     * Called after each answer generated by the workflow, {@code webSearch} telling whether it fell back to web search.
+     */
+    default void onAnswer(Duration elapsed, boolean webSearch) {
+    }
+
+    /**
+     * Called after each workflow run with the nodes it ran. The trace is not formatted unless the listener asks for it.
+     */
+    default void onTrace(WorkflowTrace trace) {
+    }
+
+    /**
+     * Called once when the background ingestion fails, with the progress reported before the failure,
+     * or null when no batch was ingested.
+     */
+    default void onIngestionFailed(IngestionReport progress, Throwable error) {
+    }
+
+    /**
+     * Returns a listener forwarding every event to the given listeners, in order.
+     */
+    static CorrectiveRagListener of(CorrectiveRagListener... listeners) {
+        return new CompositeListener(Arrays.asList(listeners));
+    }
+}
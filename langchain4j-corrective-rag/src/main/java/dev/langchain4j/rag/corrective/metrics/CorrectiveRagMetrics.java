@@ -0,0 +1,129 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregates the events of every run: latency per node, calls, latency and tokens per prompt type,
+ * web searches, documents per stage and the rate of answers falling back to web search.
+ */
+public class CorrectiveRagMetrics implements CorrectiveRagListener {
+
+    private final Map<String, LatencyHistogram> nodes = new ConcurrentHashMap<>();
+    private final Map<PromptType, LatencyHistogram> modelCalls = new EnumMap<>(PromptType.class);
+    private final Map<PromptType, AtomicLong> inputTokens = new EnumMap<>(PromptType.class);
+    private final Map<PromptType, AtomicLong> outputTokens = new EnumMap<>(PromptType.class);
+    private final Map<DocumentStage, AtomicLong> documents = new EnumMap<>(DocumentStage.class);
+    private final LatencyHistogram webSearches = new LatencyHistogram();
+    private final LatencyHistogram answers = new LatencyHistogram();
+    private final AtomicLong webSearchFallbacks = new AtomicLong();
+
+    public CorrectiveRagMetrics() {
+        // Enum maps are filled up front, so they are only read afterwards
+        for (PromptType promptType : PromptType.values()) {
+            modelCalls.put(promptType, new LatencyHistogram());
+            inputTokens.put(promptType, new AtomicLong());
+            outputTokens.put(promptType, new AtomicLong());
+        }
+        for (DocumentStage stage : DocumentStage.values()) {
+            documents.put(stage, new AtomicLong());
+        }
+    }
+
+    @Override
+    public void onNode(String node, Duration elapsed) {
+        nodes.computeIfAbsent(node, name -> new LatencyHistogram()).record(elapsed);
+    }
+
+    @Override
+    public void onModelCall(PromptType promptType, Duration latency, TokenUsage tokenUsage) {
+        modelCalls.get(promptType).record(latency);
+        if (tokenUsage != null) {
+            if (tokenUsage.inputTokenCount() != null) {
+                inputTokens.get(promptType).addAndGet(tokenUsage.inputTokenCount());
+            }
+            if (tokenUsage.outputTokenCount() != null) {
+                outputTokens.get(promptType).addAndGet(tokenUsage.outputTokenCount());
+            }
+        }
+    }
+
+    @Override
+    public void onWebSearch(Duration latency, int results) {
+        webSearches.record(latency);
+    }
+
+    @Override
+    public void onDocuments(DocumentStage stage, int count) {
+        documents.get(stage).addAndGet(count);
+    }
+
+    @Override
+    public void onAnswer(Duration elapsed, boolean webSearch) {
+        answers.record(elapsed);
+        if (webSearch) {
+            webSearchFallbacks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the latency of the given node, e.g. "Grade Node", or null if it never ran.
+     */
+    public LatencyHistogram node(String node) {
+        return nodes.get(node);
+    }
+
+    public Map<String, LatencyHistogram> nodes() {
+        return nodes;
+    }
+
+    public LatencyHistogram modelCalls(PromptType promptType) {
+        return modelCalls.get(promptType);
+    }
+
+    public long modelCallCount() {
+        return modelCalls.values().stream().mapToLong(LatencyHistogram::count).sum();
+    }
+
+    public long inputTokens(PromptType promptType) {
+        return inputTokens.get(promptType).get();
+    }
+
+    public long outputTokens(PromptType promptType) {
+        return outputTokens.get(promptType).get();
+    }
+
+    public LatencyHistogram webSearches() {
+        return webSearches;
+    }
+
+    public LatencyHistogram answers() {
+        return answers;
+    }
+
+    public long documents(DocumentStage stage) {
+        return documents.get(stage).get();
+    }
+
+    public double webSearchFallbackRate() {
+        long answered = answers.count();
+        return answered == 0 ? 0.0 : (double) webSearchFallbacks.get() / answered;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder metrics = new StringBuilder("CorrectiveRagMetrics{answers=").append(answers)
+                .append(", webSearchFallbackRate=").append(webSearchFallbackRate())
+                .append(", webSearches=").append(webSearches);
+        nodes.forEach((node, histogram) -> metrics.append(", ").append(node).append('=').append(histogram));
+        modelCalls.forEach((promptType, histogram) -> metrics.append(", ").append(promptType).append('=').append(histogram)
+                .append(" tokens=").append(inputTokens(promptType)).append('/').append(outputTokens(promptType)));
+        documents.forEach((stage, count) -> metrics.append(", ").append(stage).append("Documents=").append(count));
+        return metrics.append('}').toString();
+    }
+}
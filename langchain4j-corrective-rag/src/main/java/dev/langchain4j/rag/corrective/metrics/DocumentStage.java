@@ -0,0 +1,22 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+/**
+ * Stages of the corrective workflow where documents are counted.
+ */
+public enum DocumentStage {
+
+    /**
+     * Documents retrieved from the embedding store, before grading.
+     */
+    RETRIEVED,
+
+    /**
+     * Retrieved documents graded as relevant.
+     */
+    RELEVANT,
+
+    /**
+     * Documents returned by the web search.
+     */
+    WEB_SEARCH
+}
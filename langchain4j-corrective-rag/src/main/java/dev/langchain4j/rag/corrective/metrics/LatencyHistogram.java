@@ -0,0 +1,74 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two millisecond buckets, from under 1ms up to about 9 minutes.
+ * Percentiles are approximated by the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 20;
+
+    // Bucket i counts latencies below 2^i ms, the last one everything above
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(Duration latency) {
+        long nanos = Math.max(0, latency.toNanos());
+        long millis = nanos / 1_000_000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public Duration mean() {
+        long count = count();
+        return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.get() / count);
+    }
+
+    public Duration max() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile (between 0 and 100), capped by the max.
+     */
+    public Duration percentile(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && i < BUCKETS - 1) {
+                Duration upperBound = Duration.ofMillis(1L << i);
+                return upperBound.compareTo(max()) < 0 ? upperBound : max();
+            }
+        }
+        return max();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + count() +
+                ", mean=" + mean().toMillis() + "ms" +
+                ", p50=" + percentile(50).toMillis() + "ms" +
+                ", p99=" + percentile(99).toMillis() + "ms" +
+                ", max=" + max().toMillis() + "ms" +
+                '}';
+    }
+}
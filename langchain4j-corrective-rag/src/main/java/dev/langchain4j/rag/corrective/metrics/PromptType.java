@@ -0,0 +1,12 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+/**
+ * Prompts sent to the chat language model by the corrective workflow.
+ */
+public enum PromptType {
+
+    GRADE_DOCUMENT,
+    GRADE_DOCUMENTS,
+    REWRITE_QUERY,
+    GENERATE_ANSWER
+}
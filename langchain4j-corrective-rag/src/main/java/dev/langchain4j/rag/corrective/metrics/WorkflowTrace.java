@@ -0,0 +1,48 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Nodes run by one corrective workflow run, in order, with their wall time.
+ * Recording only appends to lists, the transitions are formatted by {@link #toString()} when asked for.
+ */
+public class WorkflowTrace {
+
+    private static final String END = "END";
+
+    private final List<String> nodes = new ArrayList<>();
+    private final List<Duration> durations = new ArrayList<>();
+
+    public void record(String node, Duration elapsed) {
+        nodes.add(node);
+        durations.add(elapsed);
+    }
+
+    public List<String> nodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public List<Duration> durations() {
+        return Collections.unmodifiableList(durations);
+    }
+
+    /**
+     * Identifies the path taken through the graph: runs with the same fingerprint have the same transitions.
+     */
+    public String fingerprint() {
+        return String.join(" -> ", nodes) + " -> " + END;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder transitions = new StringBuilder();
+        for (int i = 0; i < nodes.size(); i++) {
+            String next = i + 1 < nodes.size() ? nodes.get(i + 1) : END;
+            transitions.append(nodes.get(i)).append(" (").append(durations.get(i).toMillis()).append(" ms) -> ").append(next).append('\n');
+        }
+        return transitions.toString();
+    }
+}
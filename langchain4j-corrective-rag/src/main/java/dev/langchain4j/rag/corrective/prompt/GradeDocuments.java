@@ -0,0 +1,40 @@
+package dev.langchain4j.rag.corrective.prompt;
+
+import dev.langchain4j.model.input.structured.StructuredPrompt;
+
+import java.util.List;
+
+@StructuredPrompt({
+        "You are a grader assessing relevance of retrieved documents to a user question.\n",
+
+        "Here are the retrieved documents, each one preceded by its index: \n",
+
+        "{{documents}} \n",
+
+        "Here is the user question: \n",
+
+        "{{question}} \n",
+
+
+        "If a document contains keywords related to the user question, grade it as relevant.",
+        "It does not need to be a stringent test. The goal is to filter out erroneous retrievals.",
+        "Give a binary score 'yes' or 'no' score for every document to indicate whether it is relevant to the question. \n",
+
+        "Provide the scores as a JSON array with one object per document, in the same order as the documents, ",
+        "each object with the keys 'index' and 'score', and no premable or explanation."
+})
+public class GradeDocuments {
+
+    private String documents;
+    private String question;
+
+    public GradeDocuments(List<String> documents, String question) {
+        StringBuilder numbered = new StringBuilder();
+        for (int i = 0; i < documents.size(); i++) {
+            numbered.append("[").append(i).append("] ").append(documents.get(i)).append("\n\n");
+        }
+        this.documents = numbered.toString();
+        this.question = question;
+    }
+
+}
@@ -0,0 +1,74 @@
+package dev.langchain4j.rag.corrective.replay;
+
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One recorded interaction: what was sent ({@code key}), what came back ({@code values}),
+ * when it started and how long it took.
+ */
+public class Interaction {
+
+    private final InteractionType type;
+    private final Instant timestamp;
+    private final Duration latency;
+    private final String key;
+    private final List<String> values;
+    private final TokenUsage tokenUsage;
+
+    public Interaction(InteractionType type, Instant timestamp, Duration latency, String key, List<String> values, TokenUsage tokenUsage) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.latency = latency;
+        this.key = key;
+        this.values = values;
+        this.tokenUsage = tokenUsage;
+    }
+
+    public InteractionType type() {
+        return type;
+    }
+
+    public Instant timestamp() {
+        return timestamp;
+    }
+
+    public Duration latency() {
+        return latency;
+    }
+
+    /**
+     * The question, node name, prompt or web search query.
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * The answer, the input and output states of a node, the model response or the web search results.
+     */
+    public List<String> values() {
+        return values;
+    }
+
+    /**
+     * Token usage of a model call, null when unknown.
+     */
+    public TokenUsage tokenUsage() {
+        return tokenUsage;
+    }
+
+    @Override
+    public String toString() {
+        return "Interaction{" +
+                "type=" + type +
+                ", timestamp=" + timestamp +
+                ", latency=" + latency.toMillis() + "ms" +
+                ", key='" + key + '\'' +
+                ", values=" + values.size() +
+                '}';
+    }
+}
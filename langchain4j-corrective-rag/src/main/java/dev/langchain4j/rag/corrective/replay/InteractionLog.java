@@ -0,0 +1,147 @@
+package dev.langchain4j.rag.corrective.replay;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Layout of the file written by {@link InteractionRecorder} and mapped by {@link ReplayLog}.
+ * <p>
+ * Layout (little-endian): a header (magic and version), then records back to back. Each record is its body length,
+ * followed by the body: type code, timestamp (epoch millis), latency (nanos), input and output tokens (-1 when unknown),
+ * the key and the values, strings being written as their UTF-8 length and bytes.
+ */
+final class InteractionLog {
+
+    static final int MAGIC = 0x4352524C; // "CRRL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    // Offset of the key length in a body
+    static final int KEY_OFFSET = 1 + 8 + 8 + 4 + 4;
+
+    private InteractionLog() {
+    }
+
+    static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION);
+        // Called on Buffer, the ByteBuffer overrides added in Java 9 are missing on Java 8
+        ((Buffer) header).flip();
+        return header;
+    }
+
+    /**
+     * Returns the record, length prefix included, ready to be appended.
+     */
+    static ByteBuffer encode(Interaction interaction) {
+        byte[] key = interaction.key().getBytes(StandardCharsets.UTF_8);
+        List<byte[]> encodedValues = new ArrayList<>(interaction.values().size());
+        int size = 4 + KEY_OFFSET + 4 + key.length + 4;
+        for (String value : interaction.values()) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            encodedValues.add(bytes);
+            size += 4 + bytes.length;
+        }
+        TokenUsage tokenUsage = interaction.tokenUsage();
+        ByteBuffer record = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(size - 4)
+                .put(interaction.type().code)
+                .putLong(interaction.timestamp().toEpochMilli())
+                .putLong(interaction.latency().toNanos())
+                .putInt(tokens(tokenUsage == null ? null : tokenUsage.inputTokenCount()))
+                .putInt(tokens(tokenUsage == null ? null : tokenUsage.outputTokenCount()))
+                .putInt(key.length)
+                .put(key)
+                .putInt(encodedValues.size());
+        for (byte[] value : encodedValues) {
+            record.putInt(value.length).put(value);
+        }
+        ((Buffer) record).flip();
+        return record;
+    }
+
+    /**
+     * Decodes the body starting at the position of {@code buffer}.
+     */
+    static Interaction decode(ByteBuffer buffer) {
+        InteractionType type = InteractionType.of(buffer.get());
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        Duration latency = Duration.ofNanos(buffer.getLong());
+        int inputTokens = buffer.getInt();
+        int outputTokens = buffer.getInt();
+        String key = readString(buffer);
+        int count = buffer.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+        TokenUsage tokenUsage = inputTokens < 0 && outputTokens < 0
+                ? null
+                : new TokenUsage(inputTokens < 0 ? null : inputTokens, outputTokens < 0 ? null : outputTokens);
+        return new Interaction(type, timestamp, latency, key, values, tokenUsage);
+    }
+
+    /**
+     * FNV-1a hash of the type code and key bytes, computed on the mapped bytes at load and on the key at lookup.
+     */
+    static long hash(byte typeCode, ByteBuffer key, int offset, int length) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ typeCode) * 0x100000001b3L;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (key.get(offset + i) & 0xff)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static long hash(InteractionType type, String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        return hash(type.code, ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Key of a model call: the text of its messages.
+     */
+    static String prompt(List<ChatMessage> messages) {
+        return messages.stream().map(InteractionLog::text).collect(joining("\n"));
+    }
+
+    // Same text as the deprecated ChatMessage.text(), so keys of earlier recordings still match
+    private static String text(ChatMessage message) {
+        switch (message.type()) {
+            case SYSTEM:
+                return ((SystemMessage) message).text();
+            case USER:
+                return ((UserMessage) message).singleText();
+            case AI:
+                return ((AiMessage) message).text();
+            case TOOL_EXECUTION_RESULT:
+                return ((ToolExecutionResultMessage) message).text();
+            default:
+                throw new IllegalArgumentException("Unknown message type: " + message.type());
+        }
+    }
+
+    private static int tokens(Integer count) {
+        return count == null ? -1 : count;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,195 @@
+package dev.langchain4j.rag.corrective.replay;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import lombok.Builder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Records answers, workflow nodes, model calls and web searches to an append-only file, replayed by {@link ReplayLog}.
+ * Records are appended as they complete, so a file can be replayed while it is still being written,
+ * and a file recorded earlier is appended to.
+ */
+public class InteractionRecorder implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(InteractionRecorder.class);
+
+    private final FileChannel channel;
+    private final AtomicLong recorded = new AtomicLong();
+
+    @Builder
+    public InteractionRecorder(Path file) {
+        ensureNotNull(file, "file");
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (channel.size() == 0) {
+                write(InteractionLog.header());
+            } else {
+                checkHeader(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(InteractionLog.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.read(header, 0);
+        }
+        // Called on Buffer, the ByteBuffer override added in Java 9 is missing on Java 8
+        ((Buffer) header).flip();
+        if (header.remaining() < InteractionLog.HEADER_SIZE || header.getInt() != InteractionLog.MAGIC || header.getInt() != InteractionLog.VERSION) {
+            channel.close();
+            throw new IOException(file + " is not an interaction recording of version " + InteractionLog.VERSION);
+        }
+    }
+
+    /**
+     * Appends the interaction. A failing write is logged and never fails the answer.
+     */
+    public void record(Interaction interaction) {
+        // Encoded outside the lock, only the append is serialized
+        ByteBuffer record = InteractionLog.encode(interaction);
+        synchronized (this) {
+            try {
+                write(record);
+                recorded.incrementAndGet();
+            } catch (IOException e) {
+                log.warn("Error writing {} interaction to recording", interaction.type(), e);
+            }
+        }
+    }
+
+    public void recordAnswer(String question, String answer, Instant start, Duration elapsed) {
+        record(new Interaction(InteractionType.ANSWER, start, elapsed, question, Collections.singletonList(answer), null));
+    }
+
+    public void recordNode(String node, String input, String output, Instant start, Duration elapsed) {
+        record(new Interaction(InteractionType.NODE, start, elapsed, node, Arrays.asList(input, output), null));
+    }
+
+    /**
+     * Records a model call, keyed by the text of its messages.
+     */
+    public void recordModelCall(List<ChatMessage> messages, Response<AiMessage> response, Instant start, Duration elapsed) {
+        record(new Interaction(InteractionType.MODEL_CALL, start, elapsed, InteractionLog.prompt(messages),
+                Collections.singletonList(response.content().text()), response.tokenUsage()));
+    }
+
+    public void recordWebSearch(String query, List<String> results, Instant start, Duration elapsed) {
+        record(new Interaction(InteractionType.WEB_SEARCH, start, elapsed, query, results, null));
+    }
+
+    /**
+     * Returns a model recording each call, keyed by the text of its messages.
+     * Hedged calls must be recorded once the winning call is known instead, each duplicate would be recorded.
+     */
+    public ChatLanguageModel recording(ChatLanguageModel chatLanguageModel) {
+        ensureNotNull(chatLanguageModel, "chatLanguageModel");
+        return messages -> {
+            Instant start = Instant.now();
+            long startNanos = System.nanoTime();
+            Response<AiMessage> response = chatLanguageModel.generate(messages);
+            recordModelCall(messages, response, start, elapsed(startNanos));
+            return response;
+        };
+    }
+
+    /**
+     * Returns a model recording each complete response, keyed by the text of its messages like non-streaming calls.
+     */
+    public StreamingChatLanguageModel recordingStreaming(StreamingChatLanguageModel streamingChatLanguageModel) {
+        ensureNotNull(streamingChatLanguageModel, "streamingChatLanguageModel");
+        return (List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) -> {
+            Instant start = Instant.now();
+            long startNanos = System.nanoTime();
+            streamingChatLanguageModel.generate(messages, new StreamingResponseHandler<AiMessage>() {
+                @Override
+                public void onNext(String token) {
+                    handler.onNext(token);
+                }
+
+                @Override
+                public void onComplete(Response<AiMessage> response) {
+                    recordModelCall(messages, response, start, elapsed(startNanos));
+                    handler.onComplete(response);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    handler.onError(error);
+                }
+            });
+        };
+    }
+
+    /**
+     * Returns a retriever recording the text of each result, keyed by the query.
+     * Like {@link #recording(ChatLanguageModel)}, hedged searches must be recorded once the winning search is known.
+     */
+    public ContentRetriever recordingWebSearch(ContentRetriever webSearchContentRetriever) {
+        ensureNotNull(webSearchContentRetriever, "webSearchContentRetriever");
+        return query -> {
+            Instant start = Instant.now();
+            long startNanos = System.nanoTime();
+            List<Content> contents = webSearchContentRetriever.retrieve(query);
+            recordWebSearch(query.text(), contents.stream().map(Content::textSegment).map(TextSegment::text).collect(toList()),
+                    start, elapsed(startNanos));
+            return contents;
+        };
+    }
+
+    /**
+     * Returns the number of interactions recorded by this instance.
+     */
+    public long recorded() {
+        return recorded.get();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static Duration elapsed(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,42 @@
+package dev.langchain4j.rag.corrective.replay;
+
+/**
+ * Kinds of interactions written by an {@link InteractionRecorder}. Each kind is stored as a one-byte code.
+ */
+public enum InteractionType {
+
+    /**
+     * A question and its final answer, with the wall time of the whole workflow.
+     */
+    ANSWER('A'),
+
+    /**
+     * A node of the workflow, with the state it received and returned.
+     */
+    NODE('N'),
+
+    /**
+     * A chat language model call, keyed by its prompt.
+     */
+    MODEL_CALL('M'),
+
+    /**
+     * A web search, keyed by its query, with the text of each result.
+     */
+    WEB_SEARCH('W');
+
+    final byte code;
+
+    InteractionType(char code) {
+        this.code = (byte) code;
+    }
+
+    static InteractionType of(byte code) {
+        for (InteractionType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
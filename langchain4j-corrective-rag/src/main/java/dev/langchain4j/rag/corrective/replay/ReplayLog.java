@@ -0,0 +1,252 @@
+package dev.langchain4j.rag.corrective.replay;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Serves the model responses and web search results of a recording written by {@link InteractionRecorder},
+ * so recorded traffic can be run again against a new build without calling the live services.
+ * <p>
+ * The file is memory-mapped and indexed on load by a hash of each key, only the records served are decoded.
+ * Calls with the same key get the recorded responses in recorded order, starting over once all were served.
+ * Each response is delayed by its recorded latency times {@code latencyScale}: 1 keeps the original latency,
+ * 0 answers at once.
+ */
+public class ReplayLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayLog.class);
+
+    private final ByteBuffer records;
+    private final int count;
+    private final Map<Long, Entry> index;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ReplayLog(ByteBuffer records, int count, Map<Long, Entry> index) {
+        this.records = records;
+        this.count = count;
+        this.index = index;
+    }
+
+    public static ReplayLog load(Path file) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Interaction recording of " + channel.size() + " bytes is larger than 2GB");
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.remaining() < InteractionLog.HEADER_SIZE || buffer.getInt() != InteractionLog.MAGIC) {
+            throw new IOException(file + " is not an interaction recording");
+        }
+        int version = buffer.getInt();
+        if (version != InteractionLog.VERSION) {
+            throw new IOException("Unsupported interaction recording version " + version + " in " + file);
+        }
+        Map<Long, List<Integer>> offsets = new HashMap<>();
+        int count = 0;
+        int position = InteractionLog.HEADER_SIZE;
+        while (position + 4 <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            int body = position + 4;
+            if (length < InteractionLog.KEY_OFFSET + 8 || body + length > buffer.limit()) {
+                // A record still being written, or cut short by a crash
+                log.warn("Ignoring incomplete record at offset {} of {}", position, file);
+                break;
+            }
+            int keyLength = buffer.getInt(body + InteractionLog.KEY_OFFSET);
+            long hash = InteractionLog.hash(buffer.get(body), buffer, body + InteractionLog.KEY_OFFSET + 4, keyLength);
+            offsets.computeIfAbsent(hash, h -> new ArrayList<>()).add(body);
+            count++;
+            position = body + length;
+        }
+        Map<Long, Entry> index = new HashMap<>(offsets.size() * 2);
+        offsets.forEach((hash, bodies) -> index.put(hash, new Entry(bodies.stream().mapToInt(Integer::intValue).toArray())));
+        log.info("Loaded {} recorded interactions ({} distinct keys) from {} in {} ms",
+                count, index.size(), file, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return new ReplayLog(buffer, count, index);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Decodes every recorded interaction of the given type, in recorded order, e.g. the questions to replay from the {@code ANSWER} ones.
+     */
+    public List<Interaction> interactions(InteractionType type) {
+        List<Interaction> interactions = new ArrayList<>();
+        int position = InteractionLog.HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            int length = records.getInt(position);
+            if (records.get(position + 4) == type.code) {
+                interactions.add(decode(position + 4));
+            }
+            position += 4 + length;
+        }
+        return interactions;
+    }
+
+    /**
+     * Returns the next recorded interaction of the given type and key, or null when none was recorded.
+     */
+    public Interaction next(InteractionType type, String key) {
+        Entry entry = index.get(InteractionLog.hash(type, key));
+        if (entry != null) {
+            // Hash collisions are told apart by comparing the decoded key
+            int first = Math.floorMod(entry.next.getAndIncrement(), entry.bodies.length);
+            for (int i = 0; i < entry.bodies.length; i++) {
+                Interaction interaction = decode(entry.bodies[(first + i) % entry.bodies.length]);
+                if (interaction.type() == type && interaction.key().equals(key)) {
+                    served.incrementAndGet();
+                    return interaction;
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public long served() {
+        return served.get();
+    }
+
+    /**
+     * Returns the number of calls with no recorded response, sent to the fallback when there is one.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns a model serving the recorded responses. Prompts that were not recorded go to {@code fallback},
+     * or fail with an {@link IllegalStateException} when it is null.
+     */
+    public ChatLanguageModel chatLanguageModel(double latencyScale, ChatLanguageModel fallback) {
+        ensureLatencyScale(latencyScale);
+        return messages -> {
+            Interaction interaction = next(InteractionType.MODEL_CALL, InteractionLog.prompt(messages));
+            if (interaction == null) {
+                return fallback(fallback, "prompt", InteractionLog.prompt(messages)).generate(messages);
+            }
+            pause(interaction, latencyScale);
+            return Response.from(AiMessage.from(interaction.values().get(0)), interaction.tokenUsage());
+        };
+    }
+
+    /**
+     * Returns a model serving the recorded responses in a single token, after the recorded latency of the whole response.
+     */
+    public StreamingChatLanguageModel streamingChatLanguageModel(double latencyScale, StreamingChatLanguageModel fallback) {
+        ensureLatencyScale(latencyScale);
+        return (List<ChatMessage> messages, StreamingResponseHandler<AiMessage> handler) -> {
+            Interaction interaction = next(InteractionType.MODEL_CALL, InteractionLog.prompt(messages));
+            if (interaction == null) {
+                fallback(fallback, "prompt", InteractionLog.prompt(messages)).generate(messages, handler);
+                return;
+            }
+            try {
+                pause(interaction, latencyScale);
+            } catch (RuntimeException e) {
+                handler.onError(e);
+                return;
+            }
+            String text = interaction.values().get(0);
+            handler.onNext(text);
+            handler.onComplete(Response.from(AiMessage.from(text), interaction.tokenUsage()));
+        };
+    }
+
+    /**
+     * Returns a retriever serving the recorded web search results, as text contents.
+     */
+    public ContentRetriever webSearchContentRetriever(double latencyScale, ContentRetriever fallback) {
+        ensureLatencyScale(latencyScale);
+        return query -> {
+            Interaction interaction = next(InteractionType.WEB_SEARCH, query.text());
+            if (interaction == null) {
+                return fallback(fallback, "web search", query.text()).retrieve(query);
+            }
+            pause(interaction, latencyScale);
+            return interaction.values().stream().map(Content::from).collect(toList());
+        };
+    }
+
+    private Interaction decode(int body) {
+        // Each reader works on its own view, buffers keep a position
+        ByteBuffer buffer = records.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        // Called on Buffer, the ByteBuffer override added in Java 9 is missing on Java 8
+        ((Buffer) buffer).position(body);
+        return InteractionLog.decode(buffer);
+    }
+
+    private static <T> T fallback(T fallback, String kind, String key) {
+        if (fallback == null) {
+            throw new IllegalStateException("No recorded response for " + kind + ": " + abbreviate(key));
+        }
+        log.debug("No recorded response for {}, calling the fallback: {}", kind, abbreviate(key));
+        return fallback;
+    }
+
+    private static String abbreviate(String key) {
+        String firstLine = key.split("\n", 2)[0];
+        return firstLine.length() > 80 ? firstLine.substring(0, 80) + "..." : firstLine;
+    }
+
+    private static void pause(Interaction interaction, double latencyScale) {
+        long nanos = (long) (interaction.latency().toNanos() * latencyScale);
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while replaying a " + interaction.type() + " latency", e);
+        }
+    }
+
+    private static void ensureLatencyScale(double latencyScale) {
+        if (latencyScale < 0 || Double.isNaN(latencyScale)) {
+            throw new IllegalArgumentException("latencyScale must be greater than or equal to 0, but is: " + latencyScale);
+        }
+    }
+
+    private static class Entry {
+
+        private final int[] bodies;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Entry(int[] bodies) {
+            this.bodies = bodies;
+        }
+    }
+}
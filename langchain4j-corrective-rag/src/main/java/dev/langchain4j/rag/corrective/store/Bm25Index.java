@@ -0,0 +1,153 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * In-process inverted index ranking segments with Okapi BM25. It finds exact terms, such as paper names
+ * or identifiers, that embeddings of short questions tend to miss.
+ * <p>
+ * Segments can be added and removed while the index is searched, e.g. by concurrent ingestion batches.
+ * Removed segments are skipped by searches, their postings are kept.
+ */
+public class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, List<Posting>> postings = new HashMap<>();
+    // Removed segments are null
+    private final List<TextSegment> segments = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int live;
+    private long totalLength;
+
+    public void add(List<TextSegment> segments) {
+        add(null, segments);
+    }
+
+    /**
+     * Adds the segments under the ids of their embeddings, so they can be removed with {@link #remove(Collection)}.
+     */
+    public void add(List<String> ids, List<TextSegment> segments) {
+        if (ids != null && ids.size() != segments.size()) {
+            throw new IllegalArgumentException("The number of ids and segments must be the same");
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < segments.size(); i++) {
+                TextSegment segment = segments.get(i);
+                int index = this.segments.size();
+                if (ids != null) {
+                    positions.put(ids.get(i), index);
+                }
+                Map<String, Integer> frequencies = new HashMap<>();
+                List<String> terms = Terms.of(segment.text());
+                for (String term : terms) {
+                    frequencies.merge(term, 1, Integer::sum);
+                }
+                frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new ArrayList<>()).add(new Posting(index, frequency)));
+                this.segments.add(segment);
+                lengths.add(terms.size());
+                live++;
+                totalLength += terms.size();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<String> ids) {
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                Integer index = positions.remove(id);
+                if (index != null && segments.get(index) != null) {
+                    segments.set(index, null);
+                    live--;
+                    totalLength -= lengths.get(index);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best {@code maxResults} segments sharing at least one term with the query, by decreasing BM25 score.
+     * Match ids are positions in the index and scores are raw BM25 scores, not comparable to embedding scores.
+     */
+    public List<EmbeddingMatch<TextSegment>> search(String query, int maxResults) {
+        lock.readLock().lock();
+        try {
+            if (live == 0) {
+                return new ArrayList<>();
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / live);
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : new HashSet<>(Terms.of(query))) {
+                List<Posting> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                int frequency = 0;
+                for (Posting posting : termPostings) {
+                    if (segments.get(posting.segment) != null) {
+                        frequency++;
+                    }
+                }
+                double idf = Math.log(1 + (live - frequency + 0.5) / (frequency + 0.5));
+                for (Posting posting : termPostings) {
+                    if (segments.get(posting.segment) == null) {
+                        continue;
+                    }
+                    double norm = K1 * (1 - B + B * lengths.get(posting.segment) / averageLength);
+                    double score = idf * posting.frequency * (K1 + 1) / (posting.frequency + norm);
+                    scores.merge(posting.segment, score, Double::sum);
+                }
+            }
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(comparingDouble((Map.Entry<Integer, Double> entry) -> entry.getValue()).reversed());
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(Math.min(maxResults, ranked.size()));
+            for (Map.Entry<Integer, Double> entry : ranked.subList(0, Math.min(maxResults, ranked.size()))) {
+                matches.add(new EmbeddingMatch<>(entry.getValue(), String.valueOf(entry.getKey()), null, segments.get(entry.getKey())));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static class Posting {
+
+        private final int segment;
+        private final int frequency;
+
+        private Posting(int segment, int frequency) {
+            this.segment = segment;
+            this.frequency = frequency;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Thread-safe in-memory {@link EmbeddingStore} that, unlike {@link dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore},
+ * supports removing embeddings by id, so documents can be replaced while the store is searched.
+ */
+public class ConcurrentEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return add(embedding, null);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        put(id, embedding, null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = randomUUID();
+        put(id, embedding, textSegment);
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        return addAll(embeddings, null);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        if (embedded != null && embedded.size() != embeddings.size()) {
+            throw new IllegalArgumentException("The number of embeddings and embedded segments must be the same");
+        }
+        List<String> ids = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            ids.add(add(embeddings.get(i), embedded == null ? null : embedded.get(i)));
+        }
+        return ids;
+    }
+
+    @Override
+    public void remove(String id) {
+        entries.remove(ensureNotNull(id, "id"));
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        ensureNotNull(ids, "ids").forEach(entries::remove);
+    }
+
+    @Override
+    public void removeAll() {
+        entries.clear();
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        float[] query = request.queryEmbedding().vector();
+        float queryNorm = EmbeddingSnapshot.norm(query);
+        Filter filter = request.filter();
+        int maxResults = request.maxResults();
+
+        // Keep the best maxResults matches in a min-heap
+        PriorityQueue<EmbeddingMatch<TextSegment>> best = new PriorityQueue<>(Comparator.comparingDouble(EmbeddingMatch::score));
+        for (Entry entry : entries.values()) {
+            double score = RelevanceScore.fromCosineSimilarity(entry.cosine(query, queryNorm));
+            if (score < request.minScore()) {
+                continue;
+            }
+            if (best.size() == maxResults && score <= best.peek().score()) {
+                continue;
+            }
+            if (filter != null && (entry.segment == null || !filter.test(entry.segment.metadata()))) {
+                continue;
+            }
+            best.add(new EmbeddingMatch<>(score, entry.id, entry.embedding, entry.segment));
+            if (best.size() > maxResults) {
+                best.poll();
+            }
+        }
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            matches.add(best.poll());
+        }
+        Collections.reverse(matches);
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    private void put(String id, Embedding embedding, TextSegment segment) {
+        ensureNotNull(id, "id");
+        ensureNotNull(embedding, "embedding");
+        entries.put(id, new Entry(id, embedding, segment));
+    }
+
+    private static class Entry {
+
+        private final String id;
+        private final Embedding embedding;
+        private final float norm;
+        private final TextSegment segment;
+
+        private Entry(String id, Embedding embedding, TextSegment segment) {
+            this.id = id;
+            this.embedding = embedding;
+            this.norm = EmbeddingSnapshot.norm(embedding.vector());
+            this.segment = segment;
+        }
+
+        private double cosine(float[] query, float queryNorm) {
+            float[] vector = embedding.vector();
+            if (vector.length != query.length) {
+                throw new IllegalArgumentException("Query embedding dimension " + query.length + " does not match stored dimension " + vector.length);
+            }
+            if (norm == 0 || queryNorm == 0) {
+                return 0;
+            }
+            double dot = 0;
+            for (int d = 0; d < vector.length; d++) {
+                dot += query[d] * vector[d];
+            }
+            return dot / (queryNorm * norm);
+        }
+    }
+}
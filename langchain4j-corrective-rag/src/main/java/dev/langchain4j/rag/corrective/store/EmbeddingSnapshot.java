@@ -0,0 +1,201 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureEq;
+
+/**
+ * Writes ingested segments and their embeddings to a compact snapshot file, read back by {@link MappedEmbeddingStore}.
+ * <p>
+ * Layout (little-endian): a fixed header, one float norm per vector, the vectors back to back,
+ * one long offset per record (plus the end offset), and the records (id, text and metadata).
+ */
+public class EmbeddingSnapshot {
+
+    static final int MAGIC = 0x43524147; // "CRAG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+
+    static final byte STRING = 'S';
+    static final byte INTEGER = 'I';
+    static final byte LONG = 'L';
+    static final byte FLOAT = 'F';
+    static final byte DOUBLE = 'D';
+
+    private EmbeddingSnapshot() {
+    }
+
+    /**
+     * Fingerprints everything the snapshot depends on: document contents and metadata, splitter settings and embedding model.
+     */
+    public static String fingerprint(List<Document> documents, String splitterSettings, String embeddingModelName) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, "v" + VERSION);
+            update(digest, splitterSettings);
+            update(digest, embeddingModelName);
+            for (Document document : documents) {
+                update(digest, document.text());
+                update(digest, new TreeMap<>(document.metadata().toMap()).toString());
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first, then moves it in place, so readers never see a partial snapshot.
+     */
+    public static void write(Path file, List<String> ids, List<Embedding> embeddings, List<TextSegment> segments) throws IOException {
+        ensureEq(ids.size(), embeddings.size(), "ids size (%s) must be equal to embeddings size (%s)", ids.size(), embeddings.size());
+        ensureEq(ids.size(), segments.size(), "ids size (%s) must be equal to segments size (%s)", ids.size(), segments.size());
+        int count = ids.size();
+        int dimension = count == 0 ? 0 : embeddings.get(0).dimension();
+
+        // Records are encoded up front, their sizes give the offsets table
+        byte[][] records = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            records[i] = encodeRecord(ids.get(i), segments.get(i));
+        }
+
+        long normsOffset = HEADER_SIZE;
+        long vectorsOffset = normsOffset + 4L * count;
+        long recordOffsetsOffset = vectorsOffset + 4L * count * dimension;
+        long recordsOffset = recordOffsetsOffset + 8L * (count + 1);
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(count);
+            buffer.putLong(normsOffset).putLong(vectorsOffset).putLong(recordOffsetsOffset).putLong(recordsOffset);
+            for (Embedding embedding : embeddings) {
+                buffer = ensureRemaining(channel, buffer, 4);
+                buffer.putFloat(norm(embedding.vector()));
+            }
+            for (Embedding embedding : embeddings) {
+                ensureEq(embedding.dimension(), dimension, "all embeddings must have dimension %s", dimension);
+                for (float value : embedding.vector()) {
+                    buffer = ensureRemaining(channel, buffer, 4);
+                    buffer.putFloat(value);
+                }
+            }
+            long offset = 0;
+            for (byte[] record : records) {
+                buffer = ensureRemaining(channel, buffer, 8);
+                buffer.putLong(offset);
+                offset += record.length;
+            }
+            buffer = ensureRemaining(channel, buffer, 8);
+            buffer.putLong(offset);
+            for (byte[] record : records) {
+                flush(channel, buffer);
+                channel.write(ByteBuffer.wrap(record));
+            }
+            flush(channel, buffer);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static ByteBuffer ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        // Called on Buffer, the ByteBuffer overrides added in Java 9 are missing on Java 8
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+    }
+
+    static float norm(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += value * value;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    private static byte[] encodeRecord(String id, TextSegment segment) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeString(out, id);
+        writeString(out, segment.text());
+        Map<String, Object> metadata = segment.metadata().toMap();
+        writeInt(out, metadata.size());
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            writeString(out, entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof Integer) {
+                out.write(INTEGER);
+            } else if (value instanceof Long) {
+                out.write(LONG);
+            } else if (value instanceof Float) {
+                out.write(FLOAT);
+            } else if (value instanceof Double) {
+                out.write(DOUBLE);
+            } else {
+                out.write(STRING);
+            }
+            writeString(out, String.valueOf(value));
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
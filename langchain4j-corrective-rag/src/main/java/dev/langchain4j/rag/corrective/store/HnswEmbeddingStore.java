@@ -0,0 +1,526 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * In-memory {@link EmbeddingStore} indexing embeddings in a Hierarchical Navigable Small World graph,
+ * so a search visits a small part of the store instead of scanning all of it.
+ * <p>
+ * Each node keeps up to {@code m} neighbours per layer ({@code 2 * m} on the bottom layer), {@code efConstruction}
+ * candidates are explored when inserting and {@code efSearch} when searching: higher values give a better recall
+ * for slower inserts and searches. Searches run concurrently, inserts and removals are serialized.
+ * Removed embeddings are only marked as deleted, they stay in the graph to keep it connected and searches explore
+ * one more candidate per deleted node, so they still find {@code maxResults} live matches. Once more than half of the
+ * nodes are deleted, the graph is rebuilt from the live ones. Searches with a filter scan the whole store.
+ */
+public class HnswEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private static final int DEFAULT_M = 16;
+    private static final int DEFAULT_EF_CONSTRUCTION = 200;
+    private static final int DEFAULT_EF_SEARCH = 50;
+
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Random random;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int entryPoint = -1;
+    private int deleted;
+
+    @Builder
+    public HnswEmbeddingStore(Integer m, Integer efConstruction, Integer efSearch, Long seed) {
+        this.m = ensureGreaterThanZero(getOrDefault(m, DEFAULT_M), "m");
+        this.efConstruction = ensureGreaterThanZero(getOrDefault(efConstruction, DEFAULT_EF_CONSTRUCTION), "efConstruction");
+        this.efSearch = ensureGreaterThanZero(getOrDefault(efSearch, DEFAULT_EF_SEARCH), "efSearch");
+        this.levelMultiplier = 1 / Math.log(Math.max(2, this.m));
+        this.random = seed != null ? new Random(seed) : new Random();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size() - deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return add(embedding, null);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        insert(ensureNotNull(id, "id"), embedding, null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = randomUUID();
+        insert(id, embedding, textSegment);
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        return addAll(embeddings, null);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        if (embedded != null && embedded.size() != embeddings.size()) {
+            throw new IllegalArgumentException("The number of embeddings and embedded segments must be the same");
+        }
+        List<String> ids = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            ids.add(add(embeddings.get(i), embedded == null ? null : embedded.get(i)));
+        }
+        return ids;
+    }
+
+    @Override
+    public void remove(String id) {
+        removeAll(Collections.singletonList(ensureNotNull(id, "id")));
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        ensureNotNull(ids, "ids");
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                Integer position = positions.remove(id);
+                if (position != null) {
+                    nodes.get(position).deleted = true;
+                    deleted++;
+                }
+            }
+            if (deleted * 2 > nodes.size()) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        if (request.filter() != null) {
+            return exactSearch(request);
+        }
+        float[] query = normalized(request.queryEmbedding().vector());
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return new EmbeddingSearchResult<>(Collections.emptyList());
+            }
+            // Greedy descent to the bottom layer, then a beam search of width efSearch
+            int current = entryPoint;
+            for (int level = nodes.get(entryPoint).level(); level > 0; level--) {
+                current = greedyClosest(query, current, level);
+            }
+            // Deleted nodes may take up to one slot each among the candidates
+            int ef = Math.min(nodes.size(), Math.max(efSearch, request.maxResults()) + deleted);
+            PriorityQueue<Candidate> candidates = searchLayer(query, Collections.singletonList(current), ef, 0);
+            List<Candidate> closest = new ArrayList<>(candidates);
+            closest.sort(Comparator.comparingDouble((Candidate candidate) -> candidate.similarity).reversed());
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(request.maxResults());
+            for (Candidate candidate : closest) {
+                Node node = nodes.get(candidate.node);
+                double score = RelevanceScore.fromCosineSimilarity(candidate.similarity);
+                if (matches.size() == request.maxResults() || score < request.minScore()) {
+                    break;
+                }
+                if (!node.deleted) {
+                    matches.add(node.match(score));
+                }
+            }
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches by scanning every embedding, as a brute-force store would. Used for filtered searches and to measure recall.
+     */
+    public EmbeddingSearchResult<TextSegment> exactSearch(EmbeddingSearchRequest request) {
+        float[] query = normalized(request.queryEmbedding().vector());
+        Filter filter = request.filter();
+        lock.readLock().lock();
+        try {
+            PriorityQueue<EmbeddingMatch<TextSegment>> best = new PriorityQueue<>(Comparator.comparingDouble(EmbeddingMatch::score));
+            for (Node node : nodes) {
+                if (node.deleted) {
+                    continue;
+                }
+                double score = RelevanceScore.fromCosineSimilarity(dot(query, node.vector));
+                if (score < request.minScore()) {
+                    continue;
+                }
+                if (best.size() == request.maxResults() && score <= best.peek().score()) {
+                    continue;
+                }
+                if (filter != null && (node.segment == null || !filter.test(node.segment.metadata()))) {
+                    continue;
+                }
+                best.add(node.match(score));
+                if (best.size() > request.maxResults()) {
+                    best.poll();
+                }
+            }
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                matches.add(best.poll());
+            }
+            Collections.reverse(matches);
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs every query through the graph and through an exact scan, and reports the share of the exact
+     * {@code maxResults} matches also found by the graph, with the mean latency of both searches.
+     */
+    public RecallReport recall(List<Embedding> queries, int maxResults) {
+        ensureNotNull(queries, "queries");
+        long approximateNanos = 0;
+        long exactNanos = 0;
+        int expected = 0;
+        int found = 0;
+        for (Embedding query : queries) {
+            EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(query)
+                    .maxResults(maxResults)
+                    .build();
+            long start = System.nanoTime();
+            List<EmbeddingMatch<TextSegment>> approximate = search(request).matches();
+            approximateNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            List<EmbeddingMatch<TextSegment>> exact = exactSearch(request).matches();
+            exactNanos += System.nanoTime() - start;
+
+            Set<String> approximateIds = new HashSet<>();
+            approximate.forEach(match -> approximateIds.add(match.embeddingId()));
+            expected += exact.size();
+            found += (int) exact.stream().filter(match -> approximateIds.contains(match.embeddingId())).count();
+        }
+        int count = Math.max(1, queries.size());
+        return new RecallReport(queries.size(), maxResults, expected == 0 ? 1.0 : (double) found / expected,
+                Duration.ofNanos(approximateNanos / count), Duration.ofNanos(exactNanos / count));
+    }
+
+    private void insert(String id, Embedding embedding, TextSegment segment) {
+        ensureNotNull(embedding, "embedding");
+        float[] vector = normalized(embedding.vector());
+        lock.writeLock().lock();
+        try {
+            if (entryPoint >= 0 && vector.length != nodes.get(entryPoint).vector.length) {
+                throw new IllegalArgumentException("Embedding dimension " + vector.length + " does not match store dimension " + nodes.get(entryPoint).vector.length);
+            }
+            Integer previous = positions.remove(id);
+            if (previous != null) {
+                nodes.get(previous).deleted = true;
+                deleted++;
+            }
+            link(id, embedding, vector, segment);
+            if (deleted * 2 > nodes.size()) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-inserts the live nodes into a new graph, dropping the deleted ones. Called with the write lock held.
+     */
+    private void rebuild() {
+        List<Node> live = new ArrayList<>(nodes.size() - deleted);
+        for (Node node : nodes) {
+            if (!node.deleted) {
+                live.add(node);
+            }
+        }
+        nodes.clear();
+        positions.clear();
+        entryPoint = -1;
+        deleted = 0;
+        for (Node node : live) {
+            link(node.id, node.embedding, node.vector, node.segment);
+        }
+    }
+
+    /**
+     * Adds a node and links it to its closest neighbours on each of its layers. Called with the write lock held.
+     */
+    private void link(String id, Embedding embedding, float[] vector, TextSegment segment) {
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        int position = nodes.size();
+        Node node = new Node(id, embedding, vector, segment, level, m);
+        nodes.add(node);
+        positions.put(id, position);
+        if (entryPoint < 0) {
+            entryPoint = position;
+            return;
+        }
+
+        int current = entryPoint;
+        int topLevel = nodes.get(entryPoint).level();
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        List<Integer> entryPoints = Collections.singletonList(current);
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> candidates = searchLayer(vector, entryPoints, efConstruction, l);
+            List<Candidate> closest = new ArrayList<>(candidates);
+            closest.sort(Comparator.comparingDouble((Candidate candidate) -> candidate.similarity).reversed());
+            int maxNeighbours = maxNeighbours(l);
+            List<Integer> nextEntryPoints = new ArrayList<>(closest.size());
+            for (Candidate candidate : closest) {
+                nextEntryPoints.add(candidate.node);
+            }
+            for (Candidate candidate : selectNeighbours(closest, m)) {
+                node.neighbours[l].add(candidate.node);
+                connect(candidate.node, position, l, maxNeighbours);
+            }
+            entryPoints = nextEntryPoints;
+        }
+        if (level > topLevel) {
+            entryPoint = position;
+        }
+    }
+
+    private void connect(int from, int to, int level, int maxNeighbours) {
+        Neighbours neighbours = nodes.get(from).neighbours[level];
+        neighbours.add(to);
+        if (neighbours.size > maxNeighbours) {
+            float[] vector = nodes.get(from).vector;
+            List<Candidate> candidates = new ArrayList<>(neighbours.size);
+            for (int i = 0; i < neighbours.size; i++) {
+                candidates.add(new Candidate(neighbours.ids[i], dot(vector, nodes.get(neighbours.ids[i]).vector)));
+            }
+            candidates.sort(Comparator.comparingDouble((Candidate candidate) -> candidate.similarity).reversed());
+            neighbours.size = 0;
+            for (Candidate candidate : selectNeighbours(candidates, maxNeighbours)) {
+                neighbours.add(candidate.node);
+            }
+        }
+    }
+
+    /**
+     * Selects up to {@code max} neighbours among candidates sorted by decreasing similarity, preferring candidates
+     * closer to the node than to the neighbours already selected, so that links point in diverse directions.
+     * Remaining slots are filled with the closest candidates left.
+     */
+    private List<Candidate> selectNeighbours(List<Candidate> candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates;
+        }
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() == max) {
+                break;
+            }
+            float[] vector = nodes.get(candidate.node).vector;
+            boolean diverse = true;
+            for (Candidate neighbour : selected) {
+                if (dot(vector, nodes.get(neighbour.node).vector) > candidate.similarity) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        double best = dot(query, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Neighbours neighbours = nodes.get(current).neighbours[level];
+            for (int i = 0; i < neighbours.size; i++) {
+                int neighbour = neighbours.ids[i];
+                double similarity = dot(query, nodes.get(neighbour).vector);
+                if (similarity > best) {
+                    best = similarity;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the {@code ef} nodes closest to the query found from the entry points, in a min-heap by similarity.
+     */
+    private PriorityQueue<Candidate> searchLayer(float[] query, List<Integer> entryPoints, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(Comparator.comparingDouble((Candidate candidate) -> candidate.similarity).reversed());
+        PriorityQueue<Candidate> closest = new PriorityQueue<>(Comparator.comparingDouble(candidate -> candidate.similarity));
+        for (int entry : entryPoints) {
+            if (!visited.get(entry)) {
+                visited.set(entry);
+                Candidate candidate = new Candidate(entry, dot(query, nodes.get(entry).vector));
+                toVisit.add(candidate);
+                closest.add(candidate);
+                if (closest.size() > ef) {
+                    closest.poll();
+                }
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            Candidate candidate = toVisit.poll();
+            if (closest.size() >= ef && candidate.similarity < closest.peek().similarity) {
+                break;
+            }
+            Neighbours neighbours = nodes.get(candidate.node).neighbours[level];
+            for (int i = 0; i < neighbours.size; i++) {
+                int neighbour = neighbours.ids[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                double similarity = dot(query, nodes.get(neighbour).vector);
+                if (closest.size() < ef || similarity > closest.peek().similarity) {
+                    Candidate next = new Candidate(neighbour, similarity);
+                    toVisit.add(next);
+                    closest.add(next);
+                    if (closest.size() > ef) {
+                        closest.poll();
+                    }
+                }
+            }
+        }
+        return closest;
+    }
+
+    private int maxNeighbours(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    private static float[] normalized(float[] vector) {
+        float norm = EmbeddingSnapshot.norm(vector);
+        float[] normalized = new float[vector.length];
+        if (norm > 0) {
+            for (int d = 0; d < vector.length; d++) {
+                normalized[d] = vector[d] / norm;
+            }
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double dot = 0;
+        for (int d = 0; d < a.length; d++) {
+            dot += a[d] * b[d];
+        }
+        return dot;
+    }
+
+    private static class Node {
+
+        private final String id;
+        private final Embedding embedding;
+        private final float[] vector;
+        private final TextSegment segment;
+        private final Neighbours[] neighbours;
+        private boolean deleted;
+
+        private Node(String id, Embedding embedding, float[] vector, TextSegment segment, int level, int m) {
+            this.id = id;
+            this.embedding = embedding;
+            this.vector = vector;
+            this.segment = segment;
+            this.neighbours = new Neighbours[level + 1];
+            for (int l = 0; l <= level; l++) {
+                this.neighbours[l] = new Neighbours(l == 0 ? 2 * m : m);
+            }
+        }
+
+        private int level() {
+            return neighbours.length - 1;
+        }
+
+        private EmbeddingMatch<TextSegment> match(double score) {
+            return new EmbeddingMatch<>(score, id, embedding, segment);
+        }
+    }
+
+    private static class Neighbours {
+
+        private int[] ids;
+        private int size;
+
+        private Neighbours(int capacity) {
+            this.ids = new int[capacity + 1];
+        }
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private static class Candidate {
+
+        private final int node;
+        private final double similarity;
+
+        private Candidate(int node, double similarity) {
+            this.node = node;
+            this.similarity = similarity;
+        }
+    }
+}
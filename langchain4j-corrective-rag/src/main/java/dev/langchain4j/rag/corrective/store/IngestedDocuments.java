@@ -0,0 +1,95 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Documents ingested into an embedding store and an optional lexical index, keeping the ids of the segments
+ * of each document, so documents can be added or removed without re-ingesting the others.
+ * <p>
+ * Documents are identified by their text and metadata. Changes are applied one at a time,
+ * the store and the index can be searched meanwhile, so they must support removals and concurrent writes.
+ */
+public class IngestedDocuments {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestedDocuments.class);
+
+    private final ParallelIngestor ingestor;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final Bm25Index lexicalIndex;
+    private final Map<Document, List<String>> segmentIds = new HashMap<>();
+
+    public IngestedDocuments(ParallelIngestor ingestor, EmbeddingStore<TextSegment> embeddingStore, Bm25Index lexicalIndex) {
+        this.ingestor = ensureNotNull(ingestor, "ingestor");
+        this.embeddingStore = ensureNotNull(embeddingStore, "embeddingStore");
+        this.lexicalIndex = lexicalIndex;
+    }
+
+    /**
+     * Embeds the documents that are not ingested yet, and returns the report of their ingestion.
+     */
+    public synchronized IngestionReport add(List<Document> documents) {
+        ensureNotNull(documents, "documents");
+        List<Document> added;
+        synchronized (segmentIds) {
+            added = documents.stream().distinct().filter(document -> !segmentIds.containsKey(document)).collect(toList());
+        }
+        if (added.size() < documents.size()) {
+            log.debug("Skipping {} documents already ingested", documents.size() - added.size());
+        }
+        return ingestor.ingest(added, (embeddings, segments, sources) -> {
+            List<String> ids = embeddingStore.addAll(embeddings, segments);
+            if (lexicalIndex != null) {
+                lexicalIndex.add(ids, segments);
+            }
+            synchronized (segmentIds) {
+                for (int i = 0; i < ids.size(); i++) {
+                    segmentIds.computeIfAbsent(sources.get(i), document -> new ArrayList<>()).add(ids.get(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the segments of the documents, and returns the number of documents removed.
+     */
+    public synchronized int remove(List<Document> documents) {
+        ensureNotNull(documents, "documents");
+        List<String> ids = new ArrayList<>();
+        int removed = 0;
+        synchronized (segmentIds) {
+            for (Document document : documents) {
+                List<String> documentIds = segmentIds.remove(document);
+                if (documentIds != null) {
+                    ids.addAll(documentIds);
+                    removed++;
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            embeddingStore.removeAll(ids);
+            if (lexicalIndex != null) {
+                lexicalIndex.remove(ids);
+            }
+        }
+        log.info("Removed {} documents ({} segments)", removed, ids.size());
+        return removed;
+    }
+
+    public int size() {
+        synchronized (segmentIds) {
+            return segmentIds.size();
+        }
+    }
+}
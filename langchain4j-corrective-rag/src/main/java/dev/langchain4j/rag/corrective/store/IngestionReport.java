@@ -0,0 +1,63 @@
+package dev.langchain4j.rag.corrective.store;
+
+import java.time.Duration;
+
+/**
+ * Progress of an ingestion run: documents split, segments embedded and stored so far, and the resulting throughput.
+ */
+public class IngestionReport {
+
+    private final int documents;
+    private final int segments;
+    private final int embeddedSegments;
+    private final int batches;
+    private final Duration elapsed;
+
+    public IngestionReport(int documents, int segments, int embeddedSegments, int batches, Duration elapsed) {
+        this.documents = documents;
+        this.segments = segments;
+        this.embeddedSegments = embeddedSegments;
+        this.batches = batches;
+        this.elapsed = elapsed;
+    }
+
+    public int documents() {
+        return documents;
+    }
+
+    public int segments() {
+        return segments;
+    }
+
+    public int embeddedSegments() {
+        return embeddedSegments;
+    }
+
+    public int batches() {
+        return batches;
+    }
+
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    public boolean isComplete() {
+        return embeddedSegments == segments;
+    }
+
+    public double segmentsPerSecond() {
+        long millis = elapsed.toMillis();
+        return millis == 0 ? embeddedSegments : embeddedSegments * 1000.0 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestionReport{" +
+                "documents=" + documents +
+                ", segments=" + embeddedSegments + "/" + segments +
+                ", batches=" + batches +
+                ", elapsed=" + elapsed.toMillis() + "ms" +
+                ", segmentsPerSecond=" + String.format("%.1f", segmentsPerSecond()) +
+                '}';
+    }
+}
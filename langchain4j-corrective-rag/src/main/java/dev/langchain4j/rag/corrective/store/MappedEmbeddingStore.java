@@ -0,0 +1,256 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static dev.langchain4j.rag.corrective.store.EmbeddingSnapshot.DOUBLE;
+import static dev.langchain4j.rag.corrective.store.EmbeddingSnapshot.FLOAT;
+import static dev.langchain4j.rag.corrective.store.EmbeddingSnapshot.INTEGER;
+import static dev.langchain4j.rag.corrective.store.EmbeddingSnapshot.LONG;
+
+/**
+ * Read-only {@link EmbeddingStore} over a snapshot written by {@link EmbeddingSnapshot#write}.
+ * The file is memory-mapped: vectors and texts stay in the page cache instead of the heap,
+ * and only the matches returned by a search are decoded.
+ */
+public class MappedEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private final int dimension;
+    private final int count;
+    private final FloatBuffer norms;
+    private final FloatBuffer vectors;
+    private final LongBuffer recordOffsets;
+    private final ByteBuffer records;
+
+    private MappedEmbeddingStore(int dimension, int count, FloatBuffer norms, FloatBuffer vectors, LongBuffer recordOffsets, ByteBuffer records) {
+        this.dimension = dimension;
+        this.count = count;
+        this.norms = norms;
+        this.vectors = vectors;
+        this.recordOffsets = recordOffsets;
+        this.records = records;
+    }
+
+    public static MappedEmbeddingStore load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = map(channel, 0, EmbeddingSnapshot.HEADER_SIZE);
+            if (header.getInt() != EmbeddingSnapshot.MAGIC) {
+                throw new IOException(file + " is not an embedding snapshot");
+            }
+            int version = header.getInt();
+            if (version != EmbeddingSnapshot.VERSION) {
+                throw new IOException("Unsupported embedding snapshot version " + version + " in " + file);
+            }
+            int dimension = header.getInt();
+            int count = header.getInt();
+            long normsOffset = header.getLong();
+            long vectorsOffset = header.getLong();
+            long recordOffsetsOffset = header.getLong();
+            long recordsOffset = header.getLong();
+            // The mappings stay valid after the channel is closed
+            return new MappedEmbeddingStore(
+                    dimension,
+                    count,
+                    map(channel, normsOffset, vectorsOffset - normsOffset).asFloatBuffer(),
+                    map(channel, vectorsOffset, recordOffsetsOffset - vectorsOffset).asFloatBuffer(),
+                    map(channel, recordOffsetsOffset, recordsOffset - recordOffsetsOffset).asLongBuffer(),
+                    map(channel, recordsOffset, channel.size() - recordsOffset)
+            );
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Embedding snapshot section of " + size + " bytes is larger than 2GB");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Decodes all stored segments, in storage order.
+     */
+    public List<TextSegment> segments() {
+        List<TextSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(record(i).segment);
+        }
+        return segments;
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        float[] query = request.queryEmbedding().vector();
+        if (count == 0) {
+            return new EmbeddingSearchResult<>(Collections.emptyList());
+        }
+        if (query.length != dimension) {
+            throw new IllegalArgumentException("Query embedding dimension " + query.length + " does not match store dimension " + dimension);
+        }
+        float queryNorm = EmbeddingSnapshot.norm(query);
+        Filter filter = request.filter();
+        int maxResults = request.maxResults();
+
+        // Keep the best maxResults matches in a min-heap
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(candidate -> candidate.score));
+        for (int i = 0; i < count; i++) {
+            double score = RelevanceScore.fromCosineSimilarity(cosine(query, queryNorm, i));
+            if (score < request.minScore()) {
+                continue;
+            }
+            if (best.size() == maxResults && score <= best.peek().score) {
+                continue;
+            }
+            if (filter != null && !filter.test(record(i).segment.metadata())) {
+                continue;
+            }
+            best.add(new Candidate(i, score));
+            if (best.size() > maxResults) {
+                best.poll();
+            }
+        }
+        List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Candidate candidate = best.poll();
+            Record record = record(candidate.index);
+            matches.add(new EmbeddingMatch<>(candidate.score, record.id, Embedding.from(vector(candidate.index)), record.segment));
+        }
+        Collections.reverse(matches);
+        return new EmbeddingSearchResult<>(matches);
+    }
+
+    private double cosine(float[] query, float queryNorm, int index) {
+        float norm = norms.get(index);
+        if (norm == 0 || queryNorm == 0) {
+            return 0;
+        }
+        int base = index * dimension;
+        double dot = 0;
+        for (int d = 0; d < dimension; d++) {
+            dot += query[d] * vectors.get(base + d);
+        }
+        return dot / (queryNorm * norm);
+    }
+
+    private float[] vector(int index) {
+        float[] vector = new float[dimension];
+        int base = index * dimension;
+        for (int d = 0; d < dimension; d++) {
+            vector[d] = vectors.get(base + d);
+        }
+        return vector;
+    }
+
+    private Record record(int index) {
+        // Each reader works on its own view, buffers keep a position
+        ByteBuffer buffer = records.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        // Called on Buffer, the ByteBuffer override added in Java 9 is missing on Java 8
+        ((Buffer) buffer).position((int) recordOffsets.get(index));
+        String id = readString(buffer);
+        String text = readString(buffer);
+        int entries = buffer.getInt();
+        Map<String, Object> metadata = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            String key = readString(buffer);
+            byte type = buffer.get();
+            String value = readString(buffer);
+            if (type == INTEGER) {
+                metadata.put(key, Integer.parseInt(value));
+            } else if (type == LONG) {
+                metadata.put(key, Long.parseLong(value));
+            } else if (type == FLOAT) {
+                metadata.put(key, Float.parseFloat(value));
+            } else if (type == DOUBLE) {
+                metadata.put(key, Double.parseDouble(value));
+            } else {
+                metadata.put(key, value);
+            }
+        }
+        return new Record(id, TextSegment.from(text, Metadata.from(metadata)));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        throw readOnly();
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        throw readOnly();
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("MappedEmbeddingStore is read-only, write a new snapshot instead");
+    }
+
+    private static class Candidate {
+
+        private final int index;
+        private final double score;
+
+        private Candidate(int index, double score) {
+            this.index = index;
+            this.score = score;
+        }
+    }
+
+    private static class Record {
+
+        private final String id;
+        private final TextSegment segment;
+
+        private Record(String id, TextSegment segment) {
+            this.id = id;
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingSearchResult;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import dev.langchain4j.store.embedding.RelevanceScore;
+import dev.langchain4j.store.embedding.filter.Filter;
+import lombok.Builder;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.Utils.randomUUID;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * In-memory {@link EmbeddingStore} packing vectors contiguously in direct buffers, outside the Java heap.
+ * <p>
+ * When {@code quantized} (the default), each normalized vector is stored as one signed byte per dimension with a scale,
+ * i.e. a quarter of its float size, and searches scan the bytes. With {@code rerank} (the default), float vectors
+ * are also kept off-heap and the best {@code rerankFactor * maxResults} candidates are re-scored exactly, so scores
+ * are the same as with a float store. Without it, only the bytes are kept and scores are approximate.
+ * <p>
+ * Memory: the default {@code rerank} keeps the floats and the bytes, about 1.25 times the off-heap size of a float store,
+ * only the scans read 4 times fewer bytes. {@code rerank(false)} is the setting using about 4 times less memory than floats.
+ * <p>
+ * Searches run concurrently, writes are serialized. Removed embeddings are skipped, their space is not reclaimed.
+ */
+public class OffHeapEmbeddingStore implements EmbeddingStore<TextSegment> {
+
+    private static final int CHUNK_SIZE = 4096;
+    // Vectors copied at once from a chunk to the heap for scoring
+    private static final int BLOCK_SIZE = 64;
+    private static final int DEFAULT_RERANK_FACTOR = 4;
+
+    private final boolean quantized;
+    private final boolean rerank;
+    private final int rerankFactor;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final List<String> ids = new ArrayList<>();
+    private final List<TextSegment> segments = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    private int dimension = -1;
+    private int count;
+
+    @Builder
+    public OffHeapEmbeddingStore(Boolean quantized, Boolean rerank, Integer rerankFactor) {
+        this.quantized = getOrDefault(quantized, true);
+        this.rerank = this.quantized && getOrDefault(rerank, true);
+        this.rerankFactor = ensureGreaterThanZero(getOrDefault(rerankFactor, DEFAULT_RERANK_FACTOR), "rerankFactor");
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count - removed.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the off-heap bytes allocated for vectors, scales and norms.
+     */
+    public long vectorBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) chunks.size() * CHUNK_SIZE * bytesPerVector();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String add(Embedding embedding) {
+        return add(embedding, null);
+    }
+
+    @Override
+    public void add(String id, Embedding embedding) {
+        put(ensureNotNull(id, "id"), embedding, null);
+    }
+
+    @Override
+    public String add(Embedding embedding, TextSegment textSegment) {
+        String id = randomUUID();
+        put(id, embedding, textSegment);
+        return id;
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings) {
+        return addAll(embeddings, null);
+    }
+
+    @Override
+    public List<String> addAll(List<Embedding> embeddings, List<TextSegment> embedded) {
+        if (embedded != null && embedded.size() != embeddings.size()) {
+            throw new IllegalArgumentException("The number of embeddings and embedded segments must be the same");
+        }
+        List<String> added = new ArrayList<>(embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            added.add(add(embeddings.get(i), embedded == null ? null : embedded.get(i)));
+        }
+        return added;
+    }
+
+    @Override
+    public void remove(String id) {
+        removeAll(Collections.singletonList(ensureNotNull(id, "id")));
+    }
+
+    @Override
+    public void removeAll(Collection<String> ids) {
+        ensureNotNull(ids, "ids");
+        lock.writeLock().lock();
+        try {
+            for (String id : ids) {
+                Integer position = positions.remove(id);
+                if (position != null) {
+                    removed.set(position);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public EmbeddingSearchResult<TextSegment> search(EmbeddingSearchRequest request) {
+        float[] query = normalized(request.queryEmbedding().vector());
+        Filter filter = request.filter();
+        int maxResults = request.maxResults();
+        lock.readLock().lock();
+        try {
+            if (count == 0) {
+                return new EmbeddingSearchResult<>(Collections.emptyList());
+            }
+            if (query.length != dimension) {
+                throw new IllegalArgumentException("Query embedding dimension " + query.length + " does not match store dimension " + dimension);
+            }
+            // Scan the bytes for candidates, or the floats when not quantized
+            int candidates = rerank ? maxResults * rerankFactor : maxResults;
+            PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.comparingDouble(candidate -> candidate.similarity));
+            Scan scan = quantized ? new QuantizedScan(query) : new FloatScan(query);
+            double[] similarities = new double[BLOCK_SIZE];
+            for (int from = 0; from < count; from += BLOCK_SIZE) {
+                int to = Math.min(from + BLOCK_SIZE, count);
+                // Blocks never cross chunks, the chunk size being a multiple of the block size
+                scan.score(chunks.get(from / CHUNK_SIZE), from % CHUNK_SIZE, to - from, similarities);
+                for (int i = from; i < to; i++) {
+                    double similarity = similarities[i - from];
+                    if (removed.get(i)) {
+                        continue;
+                    }
+                    if (!rerank && RelevanceScore.fromCosineSimilarity(similarity) < request.minScore()) {
+                        continue;
+                    }
+                    if (best.size() == candidates && similarity <= best.peek().similarity) {
+                        continue;
+                    }
+                    if (filter != null && (segments.get(i) == null || !filter.test(segments.get(i).metadata()))) {
+                        continue;
+                    }
+                    best.add(new Candidate(i, similarity));
+                    if (best.size() > candidates) {
+                        best.poll();
+                    }
+                }
+            }
+            List<Candidate> ranked = new ArrayList<>(best);
+            if (rerank) {
+                for (int i = 0; i < ranked.size(); i++) {
+                    int position = ranked.get(i).position;
+                    ranked.set(i, new Candidate(position, chunks.get(position / CHUNK_SIZE).similarity(query, position % CHUNK_SIZE)));
+                }
+            }
+            ranked.sort(Comparator.comparingDouble((Candidate candidate) -> candidate.similarity).reversed());
+            List<EmbeddingMatch<TextSegment>> matches = new ArrayList<>(Math.min(maxResults, ranked.size()));
+            for (Candidate candidate : ranked) {
+                double score = RelevanceScore.fromCosineSimilarity(candidate.similarity);
+                if (matches.size() == maxResults || score < request.minScore()) {
+                    break;
+                }
+                int position = candidate.position;
+                Embedding embedding = Embedding.from(chunks.get(position / CHUNK_SIZE).vector(position % CHUNK_SIZE));
+                matches.add(new EmbeddingMatch<>(score, ids.get(position), embedding, segments.get(position)));
+            }
+            return new EmbeddingSearchResult<>(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(String id, Embedding embedding, TextSegment segment) {
+        ensureNotNull(embedding, "embedding");
+        float[] vector = embedding.vector();
+        lock.writeLock().lock();
+        try {
+            if (dimension < 0) {
+                dimension = vector.length;
+            } else if (vector.length != dimension) {
+                throw new IllegalArgumentException("Embedding dimension " + vector.length + " does not match store dimension " + dimension);
+            }
+            Integer previous = positions.remove(id);
+            if (previous != null) {
+                removed.set(previous);
+            }
+            if (count % CHUNK_SIZE == 0) {
+                chunks.add(new Chunk());
+            }
+            chunks.get(count / CHUNK_SIZE).put(count % CHUNK_SIZE, vector);
+            ids.add(id);
+            segments.add(segment);
+            positions.put(id, count);
+            count++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int bytesPerVector() {
+        int floats = quantized ? (rerank ? dimension * Float.BYTES : 0) : dimension * Float.BYTES;
+        int codes = quantized ? dimension + Float.BYTES : 0;
+        return floats + codes + Float.BYTES;
+    }
+
+    private static float[] normalized(float[] vector) {
+        float norm = EmbeddingSnapshot.norm(vector);
+        float[] normalized = new float[vector.length];
+        if (norm > 0) {
+            for (int d = 0; d < vector.length; d++) {
+                normalized[d] = vector[d] / norm;
+            }
+        }
+        return normalized;
+    }
+
+    private static FloatBuffer floats(int size) {
+        return ByteBuffer.allocateDirect(size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Vectors of {@link #CHUNK_SIZE} embeddings, each buffer laid out contiguously. Buffers are only accessed
+     * with absolute gets and puts, which are safe for concurrent readers.
+     */
+    private class Chunk {
+
+        // Normalized vectors, kept unless quantized without re-ranking
+        private final FloatBuffer vectors;
+        // One byte per dimension
+        private final ByteBuffer codes;
+        private final FloatBuffer scales;
+        private final FloatBuffer norms;
+
+        private Chunk() {
+            this.vectors = !quantized || rerank ? floats(CHUNK_SIZE * dimension) : null;
+            this.codes = quantized ? ByteBuffer.allocateDirect(CHUNK_SIZE * dimension) : null;
+            this.scales = quantized ? floats(CHUNK_SIZE) : null;
+            this.norms = floats(CHUNK_SIZE);
+        }
+
+        private void put(int index, float[] vector) {
+            float norm = EmbeddingSnapshot.norm(vector);
+            float[] unit = normalized(vector);
+            norms.put(index, norm);
+            int base = index * dimension;
+            if (vectors != null) {
+                for (int d = 0; d < dimension; d++) {
+                    vectors.put(base + d, unit[d]);
+                }
+            }
+            if (quantized) {
+                // Symmetric scalar quantization: the largest component maps to 127
+                float max = 0;
+                for (float value : unit) {
+                    max = Math.max(max, Math.abs(value));
+                }
+                float scale = max == 0 ? 0 : max / 127;
+                scales.put(index, scale);
+                for (int d = 0; d < dimension; d++) {
+                    codes.put(base + d, scale == 0 ? 0 : (byte) Math.round(unit[d] / scale));
+                }
+            }
+        }
+
+        private double similarity(float[] query, int index) {
+            int base = index * dimension;
+            float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int d = 0;
+            for (; d + 3 < dimension; d += 4) {
+                s0 += query[d] * vectors.get(base + d);
+                s1 += query[d + 1] * vectors.get(base + d + 1);
+                s2 += query[d + 2] * vectors.get(base + d + 2);
+                s3 += query[d + 3] * vectors.get(base + d + 3);
+            }
+            for (; d < dimension; d++) {
+                s0 += query[d] * vectors.get(base + d);
+            }
+            return s0 + s1 + s2 + s3;
+        }
+
+        private float[] vector(int index) {
+            int base = index * dimension;
+            float norm = norms.get(index);
+            float[] vector = new float[dimension];
+            for (int d = 0; d < dimension; d++) {
+                float unit = vectors != null ? vectors.get(base + d) : codes.get(base + d) * scales.get(index);
+                vector[d] = unit * norm;
+            }
+            return vector;
+        }
+    }
+
+    /**
+     * Scores blocks of vectors against one query. Each block is bulk-copied from its direct buffer to a heap array,
+     * so the dot products run over plain arrays the JIT compiler can unroll and vectorize.
+     */
+    private interface Scan {
+
+        void score(Chunk chunk, int index, int length, double[] similarities);
+    }
+
+    private class FloatScan implements Scan {
+
+        private final float[] query;
+        private final float[] block;
+
+        private FloatScan(float[] query) {
+            this.query = query;
+            this.block = new float[BLOCK_SIZE * dimension];
+        }
+
+        @Override
+        public void score(Chunk chunk, int index, int length, double[] similarities) {
+            FloatBuffer vectors = chunk.vectors.duplicate();
+            // Called on Buffer, the FloatBuffer override added in Java 9 is missing on Java 8
+            ((Buffer) vectors).position(index * dimension);
+            vectors.get(block, 0, length * dimension);
+            for (int v = 0; v < length; v++) {
+                similarities[v] = dot(query, block, v * dimension, dimension);
+            }
+        }
+    }
+
+    private class QuantizedScan implements Scan {
+
+        // The query is quantized like the stored vectors, so the scan is an integer dot product
+        private final byte[] query;
+        private final float queryScale;
+        private final byte[] block;
+
+        private QuantizedScan(float[] query) {
+            float max = 0;
+            for (float value : query) {
+                max = Math.max(max, Math.abs(value));
+            }
+            this.queryScale = max == 0 ? 0 : max / 127;
+            this.query = new byte[query.length];
+            for (int d = 0; d < query.length; d++) {
+                this.query[d] = queryScale == 0 ? 0 : (byte) Math.round(query[d] / queryScale);
+            }
+            this.block = new byte[BLOCK_SIZE * dimension];
+        }
+
+        @Override
+        public void score(Chunk chunk, int index, int length, double[] similarities) {
+            ByteBuffer codes = chunk.codes.duplicate();
+            ((Buffer) codes).position(index * dimension);
+            codes.get(block, 0, length * dimension);
+            for (int v = 0; v < length; v++) {
+                int base = v * dimension;
+                int dot = 0;
+                for (int d = 0; d < dimension; d++) {
+                    dot += query[d] * block[base + d];
+                }
+                similarities[v] = dot * queryScale * chunk.scales.get(index + v);
+            }
+        }
+    }
+
+    private static double dot(float[] query, float[] vectors, int base, int dimension) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int d = 0;
+        for (; d + 3 < dimension; d += 4) {
+            s0 += query[d] * vectors[base + d];
+            s1 += query[d + 1] * vectors[base + d + 1];
+            s2 += query[d + 2] * vectors[base + d + 2];
+            s3 += query[d + 3] * vectors[base + d + 3];
+        }
+        for (; d < dimension; d++) {
+            s0 += query[d] * vectors[base + d];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    private static class Candidate {
+
+        private final int position;
+        private final double similarity;
+
+        private Candidate(int position, double similarity) {
+            this.position = position;
+            this.similarity = similarity;
+        }
+    }
+}
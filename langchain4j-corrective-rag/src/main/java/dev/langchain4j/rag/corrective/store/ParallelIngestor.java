@@ -0,0 +1,163 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.store.embedding.EmbeddingStore;
+import lombok.Builder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+
+/**
+ * Ingests documents into an embedding store using all cores: documents are split in parallel,
+ * segments are embedded in batches of {@code batchSize} on {@code parallelism} threads,
+ * and each embedded batch is written to the store as soon as it is ready.
+ * <p>
+ * Unlike {@link dev.langchain4j.store.embedding.EmbeddingStoreIngestor}, the store receives
+ * concurrent {@code addAll} calls, so it must be thread-safe.
+ */
+public class ParallelIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelIngestor.class);
+
+    private static final int DEFAULT_BATCH_SIZE = 32;
+
+    private final DocumentSplitter documentSplitter;
+    private final EmbeddingModel embeddingModel;
+    private final int batchSize;
+    private final int parallelism;
+    private final Consumer<IngestionReport> progressListener;
+
+    @Builder
+    public ParallelIngestor(DocumentSplitter documentSplitter,
+                            EmbeddingModel embeddingModel,
+                            Integer batchSize,
+                            Integer parallelism,
+                            Consumer<IngestionReport> progressListener) {
+        this.documentSplitter = ensureNotNull(documentSplitter, "documentSplitter");
+        this.embeddingModel = ensureNotNull(embeddingModel, "embeddingModel");
+        this.batchSize = ensureGreaterThanZero(getOrDefault(batchSize, DEFAULT_BATCH_SIZE), "batchSize");
+        this.parallelism = ensureGreaterThanZero(getOrDefault(parallelism, Runtime.getRuntime().availableProcessors()), "parallelism");
+        this.progressListener = progressListener;
+    }
+
+    public IngestionReport ingest(List<Document> documents, EmbeddingStore<TextSegment> embeddingStore) {
+        ensureNotNull(embeddingStore, "embeddingStore");
+        return ingest(documents, embeddingStore::addAll);
+    }
+
+    /**
+     * Splits and embeds the documents, passing every embedded batch to {@code sink}.
+     * The sink is called concurrently, with embeddings aligned to their segments.
+     */
+    public IngestionReport ingest(List<Document> documents, BiConsumer<List<Embedding>, List<TextSegment>> sink) {
+        ensureNotNull(sink, "sink");
+        return ingest(documents, (embeddings, segments, sources) -> sink.accept(embeddings, segments));
+    }
+
+    /**
+     * Same as {@link #ingest(List, BiConsumer)}, also passing the document each segment was split from.
+     */
+    public IngestionReport ingest(List<Document> documents, BatchSink sink) {
+        ensureNotNull(documents, "documents");
+        ensureNotNull(sink, "sink");
+        long start = System.nanoTime();
+        // Embedding is CPU bound, so it runs on a pool sized to the cores rather than on the request executor
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "corrective-rag-ingestion-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<CompletableFuture<List<TextSegment>>> splits = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                splits.add(CompletableFuture.supplyAsync(() -> documentSplitter.split(document), pool));
+            }
+            List<TextSegment> segments = new ArrayList<>();
+            List<Document> sources = new ArrayList<>();
+            for (int i = 0; i < splits.size(); i++) {
+                List<TextSegment> split = join(splits.get(i));
+                segments.addAll(split);
+                sources.addAll(Collections.nCopies(split.size(), documents.get(i)));
+            }
+            log.info("Split {} documents into {} segments in {} ms", documents.size(), segments.size(), elapsed(start).toMillis());
+
+            AtomicInteger embedded = new AtomicInteger();
+            AtomicInteger batches = new AtomicInteger();
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int from = 0; from < segments.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, segments.size());
+                List<TextSegment> batch = segments.subList(from, to);
+                List<Document> batchSources = sources.subList(from, to);
+                writes.add(CompletableFuture.runAsync(() -> {
+                    List<Embedding> embeddings = embeddingModel.embedAll(batch).content();
+                    sink.accept(embeddings, batch, batchSources);
+                    IngestionReport progress = new IngestionReport(documents.size(), segments.size(),
+                            embedded.addAndGet(batch.size()), batches.incrementAndGet(), elapsed(start));
+                    log.debug("Ingestion progress: {}", progress);
+                    if (progressListener != null) {
+                        progressListener.accept(progress);
+                    }
+                }, pool));
+            }
+            try {
+                join(CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])));
+            } catch (RuntimeException e) {
+                writes.forEach(write -> write.cancel(true));
+                throw e;
+            }
+            IngestionReport report = new IngestionReport(documents.size(), segments.size(), embedded.get(), batches.get(), elapsed(start));
+            log.info("Ingestion completed: {}", report);
+            return report;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Receives an embedded batch, with embeddings and source documents aligned to their segments.
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+
+        void accept(List<Embedding> embeddings, List<TextSegment> segments, List<Document> documents);
+    }
+
+    private static Duration elapsed(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    // Interruptible, so an ingestion running in the background stops when its owner is closed
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while ingesting documents", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
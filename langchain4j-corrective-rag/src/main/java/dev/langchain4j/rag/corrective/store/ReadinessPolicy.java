@@ -0,0 +1,26 @@
+package dev.langchain4j.rag.corrective.store;
+
+/**
+ * What questions do while the documents are still being ingested in the background.
+ * <p>
+ * If the background ingestion fails, {@link #WAIT} and {@link #REJECT} fail fast: every question is rejected
+ * with an {@link IllegalStateException} caused by the ingestion failure. {@link #SERVE_PARTIAL} keeps answering
+ * on the documents ingested before the failure.
+ */
+public enum ReadinessPolicy {
+
+    /**
+     * Wait until the ingestion completes, then answer on all documents.
+     */
+    WAIT,
+
+    /**
+     * Answer right away on the documents ingested so far, and keep doing so if the ingestion fails.
+     */
+    SERVE_PARTIAL,
+
+    /**
+     * Fail right away with an {@link IllegalStateException}.
+     */
+    REJECT
+}
@@ -0,0 +1,57 @@
+package dev.langchain4j.rag.corrective.store;
+
+import java.time.Duration;
+
+/**
+ * Recall of an approximate search against an exact scan, with the mean latency of both searches.
+ */
+public class RecallReport {
+
+    private final int queries;
+    private final int maxResults;
+    private final double recall;
+    private final Duration approximateLatency;
+    private final Duration exactLatency;
+
+    public RecallReport(int queries, int maxResults, double recall, Duration approximateLatency, Duration exactLatency) {
+        this.queries = queries;
+        this.maxResults = maxResults;
+        this.recall = recall;
+        this.approximateLatency = approximateLatency;
+        this.exactLatency = exactLatency;
+    }
+
+    public int queries() {
+        return queries;
+    }
+
+    public int maxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Share of the exact matches also returned by the approximate search, from 0 to 1.
+     */
+    public double recall() {
+        return recall;
+    }
+
+    public Duration approximateLatency() {
+        return approximateLatency;
+    }
+
+    public Duration exactLatency() {
+        return exactLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "RecallReport{" +
+                "queries=" + queries +
+                ", maxResults=" + maxResults +
+                ", recall=" + String.format("%.3f", recall) +
+                ", approximateLatency=" + approximateLatency.toNanos() / 1000 + "us" +
+                ", exactLatency=" + exactLatency.toNanos() / 1000 + "us" +
+                '}';
+    }
+}
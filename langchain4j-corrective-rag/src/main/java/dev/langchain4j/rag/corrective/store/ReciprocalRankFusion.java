@@ -0,0 +1,46 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Comparator.comparingDouble;
+
+/**
+ * Merges rankings from different retrievers with Reciprocal Rank Fusion: a segment scores {@code 1 / (k + rank)}
+ * in each ranking it appears in. Only ranks are used, so scores of different scales can be fused.
+ */
+public class ReciprocalRankFusion {
+
+    static final int K = 60;
+
+    private ReciprocalRankFusion() {
+    }
+
+    /**
+     * Returns the best {@code maxResults} segments of the rankings, identified by their text.
+     * Ties keep the order in which segments were first seen.
+     */
+    public static List<TextSegment> fuse(int maxResults, List<List<EmbeddingMatch<TextSegment>>> rankings) {
+        Map<String, TextSegment> segments = new LinkedHashMap<>();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (List<EmbeddingMatch<TextSegment>> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                TextSegment segment = ranking.get(rank).embedded();
+                segments.putIfAbsent(segment.text(), segment);
+                scores.merge(segment.text(), 1.0 / (K + rank + 1), Double::sum);
+            }
+        }
+        List<Map.Entry<String, Double>> fused = new ArrayList<>(scores.entrySet());
+        fused.sort(comparingDouble((Map.Entry<String, Double> entry) -> entry.getValue()).reversed());
+        List<TextSegment> results = new ArrayList<>(Math.min(maxResults, fused.size()));
+        for (Map.Entry<String, Double> entry : fused.subList(0, Math.min(maxResults, fused.size()))) {
+            results.add(segments.get(entry.getKey()));
+        }
+        return results;
+    }
+}
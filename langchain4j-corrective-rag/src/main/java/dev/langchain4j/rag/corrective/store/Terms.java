@@ -0,0 +1,38 @@
+package dev.langchain4j.rag.corrective.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into lower-cased terms, without common English stop words.
+ * Shared by the lexical index and the knowledge refinement, so both match questions on the same terms.
+ */
+public final class Terms {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "as", "at", "be", "by", "in", "is", "it", "of", "on", "or", "to",
+            "the", "and", "for", "are", "was", "were", "what", "which", "who", "how", "why", "when", "where",
+            "does", "did", "can", "this", "that", "with", "from", "about", "into", "its", "has", "have"));
+
+    private Terms() {
+    }
+
+    /**
+     * Returns the terms of the text in order, repeated terms included.
+     */
+    public static List<String> of(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+}
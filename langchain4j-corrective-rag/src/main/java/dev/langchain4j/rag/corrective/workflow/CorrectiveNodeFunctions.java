@@ -1,49 +1,213 @@
 package dev.langchain4j.rag.corrective.workflow;
 
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.Tokenizer;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.input.Prompt;
+import dev.langchain4j.model.input.structured.StructuredPrompt;
 import dev.langchain4j.model.input.structured.StructuredPromptProcessor;
+import dev.langchain4j.model.output.Response;
 import dev.langchain4j.rag.content.Content;
 import dev.langchain4j.rag.content.retriever.EmbeddingStoreContentRetriever;
-import dev.langchain4j.rag.content.retriever.WebSearchContentRetriever;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.corrective.cache.CachingContentRetriever;
+import dev.langchain4j.rag.corrective.cache.GradeCache;
+import dev.langchain4j.rag.corrective.limit.CallLimiter;
+import dev.langchain4j.rag.corrective.limit.CallType;
+import dev.langchain4j.rag.corrective.limit.Deadline;
+import dev.langchain4j.rag.corrective.limit.DeadlineExceededException;
+import dev.langchain4j.rag.corrective.metrics.CorrectiveRagListener;
+import dev.langchain4j.rag.corrective.metrics.DocumentStage;
+import dev.langchain4j.rag.corrective.metrics.PromptType;
 import dev.langchain4j.rag.corrective.prompt.GenerateAnswer;
 import dev.langchain4j.rag.corrective.prompt.GradeDocument;
+import dev.langchain4j.rag.corrective.prompt.GradeDocuments;
 import dev.langchain4j.rag.corrective.prompt.RewriteQuery;
+import dev.langchain4j.rag.corrective.replay.InteractionRecorder;
+import dev.langchain4j.rag.corrective.store.Bm25Index;
+import dev.langchain4j.rag.corrective.store.ReciprocalRankFusion;
 import dev.langchain4j.rag.query.Query;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import dev.langchain4j.store.embedding.EmbeddingStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
+import static dev.langchain4j.internal.Utils.getOrDefault;
+import static dev.langchain4j.internal.ValidationUtils.ensureGreaterThanZero;
+import static dev.langchain4j.internal.ValidationUtils.ensureNotNull;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 
 public class CorrectiveNodeFunctions {
 
     private static final Logger log = LoggerFactory.getLogger(CorrectiveNodeFunctions.class);
 
+    private static final int DEFAULT_MAX_RESULTS = 3;
+    private static final double DEFAULT_MIN_SCORE = 0.6;
+
     private final EmbeddingStoreContentRetriever embeddingStoreContentRetriever;
-    private final WebSearchContentRetriever webSearchContentRetriever;
+    private final EmbeddingStore<TextSegment> embeddingStore;
+    private final EmbeddingModel embeddingModel;
+    private final Bm25Index lexicalIndex;
+    private final int maxResults;
+    private final double minScore;
+    private final ContentRetriever webSearchContentRetriever;
     private final ChatLanguageModel chatLanguageModel;
+    private final StreamingChatLanguageModel streamingChatLanguageModel;
+    private final ExecutorService executor;
+    private final int gradingConcurrency;
+    private final int gradingBatchSize;
+    private final GradeCache gradeCache;
+    private final String grader;
+    private final SpeculativeFallback speculativeFallback;
+    private final Double autoAcceptScore;
+    private final Double autoRejectScore;
+    private final TriageStats triageStats = new TriageStats();
+    private final CorrectiveRagListener listener;
+    private final KnowledgeStrips knowledgeStrips;
+    private final CallLimiter callLimiter;
+    private final HedgedCalls hedgedCalls;
+    private final InteractionRecorder interactionRecorder;
+    private final UngradedDocumentPolicy ungradedDocumentPolicy;
+    private final WebSearchTimeoutPolicy webSearchTimeoutPolicy;
 
     private CorrectiveNodeFunctions(Builder builder) {
         this.embeddingStoreContentRetriever = builder.embeddingStoreContentRetriever;
+        this.embeddingStore = builder.embeddingStore;
+        this.embeddingModel = builder.embeddingModel;
+        this.lexicalIndex = builder.lexicalIndex;
+        this.maxResults = ensureGreaterThanZero(getOrDefault(builder.maxResults, DEFAULT_MAX_RESULTS), "maxResults");
+        this.minScore = getOrDefault(builder.minScore, DEFAULT_MIN_SCORE);
         this.webSearchContentRetriever = builder.webSearchContentRetriever;
         this.chatLanguageModel = builder.chatLanguageModel;
+        this.streamingChatLanguageModel = builder.streamingChatLanguageModel;
+        this.gradingConcurrency = ensureGreaterThanZero(getOrDefault(builder.gradingConcurrency, 1), "gradingConcurrency");
+        this.speculativeFallback = getOrDefault(builder.speculativeFallback, SpeculativeFallback.DISABLED);
+        this.executor = gradingConcurrency > 1 || speculativeFallback != SpeculativeFallback.DISABLED
+                ? ensureNotNull(builder.executor, "executor")
+                : builder.executor;
+        this.gradingBatchSize = ensureGreaterThanZero(getOrDefault(builder.gradingBatchSize, 1), "gradingBatchSize");
+        this.gradeCache = builder.gradeCache;
+        this.grader = gradeCache != null
+                ? grader(getOrDefault(builder.gradingModelName, () -> chatLanguageModel.getClass().getName()))
+                : null;
+        this.autoAcceptScore = builder.autoAcceptScore;
+        this.autoRejectScore = builder.autoRejectScore;
+        this.listener = getOrDefault(builder.listener, new CorrectiveRagListener() {
+        });
+        this.knowledgeStrips = builder.contextTokenBudget != null
+                ? new KnowledgeStrips(builder.tokenizer, ensureGreaterThanZero(builder.contextTokenBudget, "contextTokenBudget"))
+                : null;
+        this.callLimiter = builder.callLimiter;
+        this.hedgedCalls = new HedgedCalls(builder.hedgeDelay);
+        this.interactionRecorder = builder.interactionRecorder;
+        this.ungradedDocumentPolicy = getOrDefault(builder.ungradedDocumentPolicy, UngradedDocumentPolicy.KEEP);
+        this.webSearchTimeoutPolicy = getOrDefault(builder.webSearchTimeoutPolicy, WebSearchTimeoutPolicy.SKIP);
+        if (autoAcceptScore != null && autoRejectScore != null && autoRejectScore > autoAcceptScore) {
+            throw new IllegalArgumentException("autoRejectScore must be lower than or equal to autoAcceptScore");
+        }
     }
 
     public static class Builder {
         private EmbeddingStoreContentRetriever embeddingStoreContentRetriever;
-        private WebSearchContentRetriever webSearchContentRetriever;
+        private EmbeddingStore<TextSegment> embeddingStore;
+        private EmbeddingModel embeddingModel;
+        private Bm25Index lexicalIndex;
+        private Integer maxResults;
+        private Double minScore;
+        private ContentRetriever webSearchContentRetriever;
         private ChatLanguageModel chatLanguageModel;
+        private StreamingChatLanguageModel streamingChatLanguageModel;
+        private ExecutorService executor;
+        private Integer gradingConcurrency;
+        private Integer gradingBatchSize;
+        private GradeCache gradeCache;
+        private String gradingModelName;
+        private SpeculativeFallback speculativeFallback;
+        private Double autoAcceptScore;
+        private Double autoRejectScore;
+        private CorrectiveRagListener listener;
+        private Integer contextTokenBudget;
+        private Tokenizer tokenizer;
+        private CallLimiter callLimiter;
+        private Duration hedgeDelay;
+        private UngradedDocumentPolicy ungradedDocumentPolicy;
+        private WebSearchTimeoutPolicy webSearchTimeoutPolicy;
+        private InteractionRecorder interactionRecorder;
 
         public Builder withEmbeddingStoreContentRetriever(EmbeddingStoreContentRetriever embeddingStoreContentRetriever) {
             this.embeddingStoreContentRetriever = embeddingStoreContentRetriever;
             return this;
         }
 
-        public Builder withWebSearchContentRetriever(WebSearchContentRetriever webSearchContentRetriever) {
+        /**
+         * Store searched by the retrieve node instead of the content retriever, together with the embedding model,
+         * so the retrieval score of each document is kept in the state.
+         */
+        public Builder withEmbeddingStore(EmbeddingStore<TextSegment> embeddingStore) {
+            this.embeddingStore = embeddingStore;
+            return this;
+        }
+
+        public Builder withEmbeddingModel(EmbeddingModel embeddingModel) {
+            this.embeddingModel = embeddingModel;
+            return this;
+        }
+
+        /**
+         * Lexical index searched along with the embedding store, both rankings being fused.
+         * Documents only found by the index have no retrieval score. Defaults to null (vector search only).
+         */
+        public Builder withLexicalIndex(Bm25Index lexicalIndex) {
+            this.lexicalIndex = lexicalIndex;
+            return this;
+        }
+
+        /**
+         * Maximum number of documents retrieved from the embedding store. Defaults to 3.
+         */
+        public Builder withMaxResults(Integer maxResults) {
+            this.maxResults = maxResults;
+            return this;
+        }
+
+        /**
+         * Minimum score of the documents retrieved from the embedding store. Defaults to 0.6.
+         */
+        public Builder withMinScore(Double minScore) {
+            this.minScore = minScore;
+            return this;
+        }
+
+        public Builder withWebSearchContentRetriever(ContentRetriever webSearchContentRetriever) {
             this.webSearchContentRetriever = webSearchContentRetriever;
             return this;
         }
@@ -53,97 +217,764 @@ public class CorrectiveNodeFunctions {
             return this;
         }
 
+        /**
+         * Model used by the generate node when the state carries a streaming handler.
+         */
+        public Builder withStreamingChatLanguageModel(StreamingChatLanguageModel streamingChatLanguageModel) {
+            this.streamingChatLanguageModel = streamingChatLanguageModel;
+            return this;
+        }
+
+        public Builder withExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Maximum number of grading calls running at the same time. Defaults to 1 (sequential grading).
+         */
+        public Builder withGradingConcurrency(Integer gradingConcurrency) {
+            this.gradingConcurrency = gradingConcurrency;
+            return this;
+        }
+
+        /**
+         * Number of documents graded together in a single {@link GradeDocuments} prompt.
+         * Defaults to 1 (one {@link GradeDocument} prompt per document).
+         */
+        public Builder withGradingBatchSize(Integer gradingBatchSize) {
+            this.gradingBatchSize = gradingBatchSize;
+            return this;
+        }
+
+        public Builder withGradeCache(GradeCache gradeCache) {
+            this.gradeCache = gradeCache;
+            return this;
+        }
+
+        /**
+         * Identifies the grading model in the grade cache keys, so grades of another model are not reused.
+         * Defaults to the class name of the chat language model.
+         */
+        public Builder withGradingModelName(String gradingModelName) {
+            this.gradingModelName = gradingModelName;
+            return this;
+        }
+
+        /**
+         * Starts the query rewrite and web search while documents are still being graded.
+         * Defaults to {@link SpeculativeFallback#DISABLED}.
+         */
+        public Builder withSpeculativeFallback(SpeculativeFallback speculativeFallback) {
+            this.speculativeFallback = speculativeFallback;
+            return this;
+        }
+
+        /**
+         * Documents retrieved with a score at or above this threshold are relevant without a grading call.
+         */
+        public Builder withAutoAcceptScore(Double autoAcceptScore) {
+            this.autoAcceptScore = autoAcceptScore;
+            return this;
+        }
+
+        /**
+         * Documents retrieved with a score below this threshold are not relevant without a grading call.
+         */
+        public Builder withAutoRejectScore(Double autoRejectScore) {
+            this.autoRejectScore = autoRejectScore;
+            return this;
+        }
+
+        /**
+         * Receives model calls, web searches and document counts. It must be thread-safe.
+         */
+        public Builder withListener(CorrectiveRagListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Maximum number of tokens of context in the {@link GenerateAnswer} prompt. When set, kept documents
+         * are refined into knowledge strips and only the most relevant ones are packed into the budget.
+         * Defaults to null (every kept document, in full).
+         */
+        public Builder withContextTokenBudget(Integer contextTokenBudget) {
+            this.contextTokenBudget = contextTokenBudget;
+            return this;
+        }
+
+        /**
+         * Tokenizer counting the context tokens. Defaults to an estimate of 4 characters per token.
+         */
+        public Builder withTokenizer(Tokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+            return this;
+        }
+
+        /**
+         * Limits the concurrent model calls and web searches. Defaults to null (no limit).
+         */
+        public Builder withCallLimiter(CallLimiter callLimiter) {
+            this.callLimiter = callLimiter;
+            return this;
+        }
+
+        /**
+         * Grading calls and web searches still running after this delay are duplicated, and the first result is used.
+         * Defaults to null (no duplicate calls).
+         */
+        public Builder withHedgeDelay(Duration hedgeDelay) {
+            this.hedgeDelay = hedgeDelay;
+            return this;
+        }
+
+        /**
+         * Applies to the documents not graded before the deadline of the state. Defaults to {@link UngradedDocumentPolicy#KEEP}.
+         */
+        public Builder withUngradedDocumentPolicy(UngradedDocumentPolicy ungradedDocumentPolicy) {
+            this.ungradedDocumentPolicy = ungradedDocumentPolicy;
+            return this;
+        }
+
+        /**
+         * Applies when the query rewrite or web search did not complete before the deadline of the state.
+         * Defaults to {@link WebSearchTimeoutPolicy#SKIP}.
+         */
+        public Builder withWebSearchTimeoutPolicy(WebSearchTimeoutPolicy webSearchTimeoutPolicy) {
+            this.webSearchTimeoutPolicy = webSearchTimeoutPolicy;
+            return this;
+        }
+
+        /**
+         * Records the model calls and web searches of the nodes, only the winner of hedged calls is recorded.
+         * The chat language model and the web search content retriever must not record too.
+         */
+        public Builder withInteractionRecorder(InteractionRecorder interactionRecorder) {
+            this.interactionRecorder = interactionRecorder;
+            return this;
+        }
+
         public CorrectiveNodeFunctions build() {
             return new CorrectiveNodeFunctions(this);
         }
     }
 
 
+    public TriageStats triageStats() {
+        return triageStats;
+    }
+
     public CorrectiveStatefulBean retrieve(CorrectiveStatefulBean state) {
+        return retrieve(state, state.getQuestionEmbedding());
+    }
+
+    /**
+     * Retrieves the documents of the question, reusing its embedding when already computed.
+     */
+    public CorrectiveStatefulBean retrieve(CorrectiveStatefulBean state, Embedding questionEmbedding) {
         log.info("---RETRIEVE---");
-        log.debug("--- Input: " + state.toString());
+        log.debug("--- Input: {}", state);
         String question = state.getQuestion();
 
-        // Retrieval
-        List<Content> relevantDocuments = embeddingStoreContentRetriever.retrieve(Query.from(question));
-        state.setDocuments(relevantDocuments.stream().map(Content::textSegment).map(TextSegment::text).collect(toList()));
+        // Retrieval, keeping the scores when searching the store directly
+        if (embeddingStore != null && embeddingModel != null) {
+            if (questionEmbedding == null) {
+                questionEmbedding = embeddingModel.embed(question).content();
+            }
+            EmbeddingSearchRequest searchRequest = EmbeddingSearchRequest.builder()
+                    .queryEmbedding(questionEmbedding)
+                    .maxResults(maxResults)
+                    .minScore(minScore)
+                    .build();
+            List<EmbeddingMatch<TextSegment>> matches = embeddingStore.search(searchRequest).matches();
+            if (lexicalIndex != null) {
+                setFused(state, matches, lexicalIndex.search(question, maxResults));
+            } else {
+                state.setDocuments(matches.stream().map(EmbeddingMatch::embedded).map(TextSegment::text).collect(toCollection(ArrayList::new)));
+                state.setDocumentScores(matches.stream().map(EmbeddingMatch::score).collect(toCollection(ArrayList::new)));
+            }
+        } else {
+            List<Content> relevantDocuments = embeddingStoreContentRetriever.retrieve(Query.from(question));
+            state.setDocuments(relevantDocuments.stream().map(Content::textSegment).map(TextSegment::text).collect(toList()));
+            state.setDocumentScores(null);
+        }
         state.setQuestion(question);
-        log.debug("--- Output: " + state.toString());
+        log.debug("--- Output: {}", state);
         return state;
     }
 
+    private void setFused(CorrectiveStatefulBean state, List<EmbeddingMatch<TextSegment>> vectorMatches, List<EmbeddingMatch<TextSegment>> lexicalMatches) {
+        // Documents keep their vector score, lexical-only documents are left for grading
+        Map<String, Double> vectorScores = new HashMap<>();
+        vectorMatches.forEach(match -> vectorScores.put(match.embedded().text(), match.score()));
+        List<String> documents = ReciprocalRankFusion.fuse(maxResults, Arrays.asList(vectorMatches, lexicalMatches)).stream()
+                .map(TextSegment::text)
+                .collect(toCollection(ArrayList::new));
+        state.setDocuments(documents);
+        state.setDocumentScores(documents.stream().map(vectorScores::get).collect(toCollection(ArrayList::new)));
+        log.debug("Fused {} vector and {} lexical matches into {} documents", vectorMatches.size(), lexicalMatches.size(), documents.size());
+    }
+
     public CorrectiveStatefulBean generate(CorrectiveStatefulBean state) {
         log.info("---GENERATE---");
-        log.debug("--- Input: " + state.toString());
+        log.debug("--- Input: {}", state);
         String question = state.getQuestion();
-        String context = String.join("\n\n", state.getDocuments());
+        String context = knowledgeStrips != null
+                ? refine(question, state.getDocuments())
+                : String.join("\n\n", state.getDocuments());
 
         // RAG generation
         GenerateAnswer generateAnswer = new GenerateAnswer(question, context);
         Prompt prompt = StructuredPromptProcessor.toPrompt(generateAnswer);
-        String generation = chatLanguageModel.generate(prompt.text());
+        String generation = state.getStreamingHandler() != null
+                ? generateStreaming(prompt.text(), state.getStreamingHandler())
+                : chat(PromptType.GENERATE_ANSWER, prompt.text());
         state.setGeneration(generation);
-        log.debug("--- Output: " + state.toString());
+        log.debug("--- Output: {}", state);
         return state;
     }
 
+    private String refine(String question, List<String> documents) {
+        String context = knowledgeStrips.refine(question, documents);
+        log.info("---REFINE: {} DOCUMENTS INTO ~{} TOKENS OF KNOWLEDGE STRIPS---", documents.size(), knowledgeStrips.tokens(context));
+        return context;
+    }
+
+    private String generateStreaming(String prompt, StreamingResponseHandler<AiMessage> handler) {
+        ensureNotNull(streamingChatLanguageModel, "streamingChatLanguageModel");
+        // The permit is held until the last token
+        return limited(CallType.GENERATE, () -> stream(prompt, handler));
+    }
+
+    private String stream(String prompt, StreamingResponseHandler<AiMessage> handler) {
+        CompletableFuture<Response<AiMessage>> response = new CompletableFuture<>();
+        long start = System.nanoTime();
+        streamingChatLanguageModel.generate(prompt, new StreamingResponseHandler<AiMessage>() {
+            @Override
+            public void onNext(String token) {
+                handler.onNext(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> completeResponse) {
+                listener.onModelCall(PromptType.GENERATE_ANSWER, elapsed(start), completeResponse.tokenUsage());
+                response.complete(completeResponse);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                response.completeExceptionally(error);
+            }
+        });
+        // Wait for the last token, so the workflow ends with the complete generation
+        try {
+            return response.get().content().text();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while streaming the answer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     public CorrectiveStatefulBean gradeDocuments(CorrectiveStatefulBean state) {
         log.info("---CHECK DOCUMENT RELEVANCE TO QUESTION---");
-        log.debug("--- Input: " + state.toString());
+        log.debug("--- Input: {}", state);
         String question = state.getQuestion();
         List<String> documents = state.getDocuments();
+        listener.onDocuments(DocumentStage.RETRIEVED, documents.size());
 
-        // Score each document
+        // Score each document, the fallback branch may start meanwhile
+        Runnable onIrrelevant = () -> {};
+        if (speculativeFallback == SpeculativeFallback.IMMEDIATE) {
+            speculate(state);
+        } else if (speculativeFallback == SpeculativeFallback.ON_FIRST_IRRELEVANT) {
+            onIrrelevant = () -> speculate(state);
+        }
+        List<Boolean> grades;
+        try {
+            grades = triage(question, documents, state.getDocumentScores(), onIrrelevant, state.getDeadline());
+        } catch (RuntimeException e) {
+            cancelSpeculation(state);
+            throw e;
+        }
         List<String> filteredDocs = new ArrayList<>();
+        List<Double> scores = state.getDocumentScores();
+        List<Double> filteredScores = scores == null ? null : new ArrayList<>();
         String webSearch = "No";
-        for (String doc: documents) {
-            GradeDocument gradeDocument = new GradeDocument(doc, question);
-            Prompt prompt = StructuredPromptProcessor.toPrompt(gradeDocument);
-            String score = chatLanguageModel.generate(prompt.text()); // {'score': 'yes'}
-            if (score.contains("yes")) {
+        for (int i = 0; i < documents.size(); i++) {
+            Boolean grade = grades.get(i);
+            if (grade == null) {
+                log.warn("---GRADE: DOCUMENT NOT GRADED BEFORE THE DEADLINE, {}---", ungradedDocumentPolicy);
+                state.setDegraded(true);
+                grade = ungradedDocumentPolicy == UngradedDocumentPolicy.KEEP;
+            }
+            if (grade) {
                 log.info("---GRADE: DOCUMENT RELEVANT---");
-                filteredDocs.add(doc);
+                filteredDocs.add(documents.get(i));
+                if (filteredScores != null) {
+                    filteredScores.add(scores.get(i));
+                }
             } else {
                 log.info("---GRADE: DOCUMENT NOT RELEVANT---");
                 webSearch = "Yes";
             }
         }
         state.setDocuments(filteredDocs);
+        state.setDocumentScores(filteredScores);
         state.setQuestion(question);
         state.setWebSearch(webSearch);
-        log.debug("--- Output: " + state.toString());
+        listener.onDocuments(DocumentStage.RELEVANT, filteredDocs.size());
+        if (webSearch.equals("No")) {
+            cancelSpeculation(state);
+        }
+        log.debug("--- Output: {}", state);
         return state;
     }
 
+    private void speculate(CorrectiveStatefulBean state) {
+        synchronized (state) {
+            if (state.getSpeculativeQuestion() != null) {
+                return;
+            }
+            log.info("---SPECULATIVE TRANSFORM QUERY AND WEB SEARCH---");
+            String question = state.getQuestion();
+            Deadline deadline = state.getDeadline();
+            // The web search is chained to the rewrite, so no executor thread is blocked waiting for it
+            CompletableFuture<String> betterQuestion = CompletableFuture.supplyAsync(() -> rewrite(question, deadline), executor);
+            state.setSpeculativeQuestion(betterQuestion);
+            state.setSpeculativeWebSearchResults(betterQuestion.thenApplyAsync(betterQuery -> search(betterQuery, deadline), executor));
+        }
+    }
+
+    private void cancelSpeculation(CorrectiveStatefulBean state) {
+        synchronized (state) {
+            if (state.getSpeculativeQuestion() == null) {
+                return;
+            }
+            log.info("---ALL DOCUMENTS RELEVANT, DISCARD SPECULATIVE WEB SEARCH---");
+            state.getSpeculativeQuestion().cancel(true);
+            state.getSpeculativeWebSearchResults().cancel(true);
+            state.setSpeculativeQuestion(null);
+            state.setSpeculativeWebSearchResults(null);
+        }
+    }
+
+    private List<Boolean> triage(String question, List<String> documents, List<Double> scores, Runnable onIrrelevant, Deadline deadline) {
+        if (scores == null || (autoAcceptScore == null && autoRejectScore == null)) {
+            return grade(question, documents, onIrrelevant, deadline);
+        }
+        // Only grade with the model the documents whose score falls between the thresholds
+        Boolean[] grades = new Boolean[documents.size()];
+        List<Integer> ambiguous = new ArrayList<>();
+        int accepted = 0;
+        int rejected = 0;
+        for (int i = 0; i < documents.size(); i++) {
+            Double score = scores.get(i);
+            if (score != null && autoAcceptScore != null && score >= autoAcceptScore) {
+                grades[i] = true;
+                accepted++;
+            } else if (score != null && autoRejectScore != null && score < autoRejectScore) {
+                grades[i] = false;
+                rejected++;
+                onIrrelevant.run();
+            } else {
+                ambiguous.add(i);
+            }
+        }
+        List<Boolean> modelGrades = grade(question, ambiguous.stream().map(documents::get).collect(toList()), onIrrelevant, deadline);
+        for (int i = 0; i < ambiguous.size(); i++) {
+            grades[ambiguous.get(i)] = modelGrades.get(i);
+        }
+        int savedCalls = gradingCalls(documents.size()) - gradingCalls(ambiguous.size());
+        triageStats.record(accepted, rejected, ambiguous.size(), savedCalls);
+        log.info("Score triage: {} accepted, {} rejected, {} sent to grading", accepted, rejected, ambiguous.size());
+        return Arrays.asList(grades);
+    }
+
+    private List<Boolean> grade(String question, List<String> documents, Runnable onIrrelevant, Deadline deadline) {
+        if (gradeCache == null) {
+            return gradeWithModel(question, documents, onIrrelevant, deadline);
+        }
+        // Only grade with the model the documents not found in cache
+        Boolean[] grades = new Boolean[documents.size()];
+        List<String> keys = new ArrayList<>(documents.size());
+        List<Integer> ungraded = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            keys.add(GradeCache.key(grader, question, documents.get(i)));
+            grades[i] = gradeCache.get(keys.get(i));
+            if (grades[i] == null) {
+                ungraded.add(i);
+            } else if (!grades[i]) {
+                onIrrelevant.run();
+            }
+        }
+        List<Boolean> modelGrades = gradeWithModel(question, ungraded.stream().map(documents::get).collect(toList()), onIrrelevant, deadline);
+        for (int i = 0; i < ungraded.size(); i++) {
+            int index = ungraded.get(i);
+            grades[index] = modelGrades.get(i);
+            // Documents not graded before the deadline are not cached
+            if (grades[index] != null) {
+                gradeCache.put(keys.get(index), grades[index]);
+            }
+        }
+        gradeCache.stats().recordSavedCalls(gradingCalls(documents.size()) - gradingCalls(ungraded.size()));
+        return Arrays.asList(grades);
+    }
+
+    // The grading prompts are part of the grade cache keys, so changing them invalidates the cached grades
+    private static String grader(String gradingModelName) {
+        StringBuilder grader = new StringBuilder(gradingModelName);
+        for (Class<?> prompt : Arrays.asList(GradeDocument.class, GradeDocuments.class)) {
+            StructuredPrompt template = prompt.getAnnotation(StructuredPrompt.class);
+            grader.append('\n').append(String.join(template.delimiter(), template.value()));
+        }
+        return grader.toString();
+    }
+
+    private int gradingCalls(int documents) {
+        return (documents + gradingBatchSize - 1) / gradingBatchSize;
+    }
+
+    private List<Boolean> gradeWithModel(String question, List<String> documents, Runnable onIrrelevant, Deadline deadline) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i += gradingBatchSize) {
+            batches.add(documents.subList(i, Math.min(i + gradingBatchSize, documents.size())));
+        }
+        List<List<Boolean>> batchGrades = gradingConcurrency > 1 && batches.size() > 1
+                ? gradeConcurrently(question, batches, onIrrelevant, deadline)
+                : gradeSequentially(question, batches, onIrrelevant, deadline);
+        List<Boolean> grades = new ArrayList<>(documents.size());
+        batchGrades.forEach(grades::addAll);
+        return grades;
+    }
+
+    private List<List<Boolean>> gradeSequentially(String question, List<List<String>> batches, Runnable onIrrelevant, Deadline deadline) {
+        List<List<Boolean>> grades = new ArrayList<>(batches.size());
+        for (List<String> batch : batches) {
+            grades.add(gradeBatch(question, batch, onIrrelevant, deadline));
+        }
+        return grades;
+    }
+
+    private List<List<Boolean>> gradeConcurrently(String question, List<List<String>> batches, Runnable onIrrelevant, Deadline deadline) {
+        // The calling thread grades along with at most gradingConcurrency - 1 workers, all taking the next batch from
+        // the same counter: no task waits on the executor for a permit, and grading completes even when no executor thread is free
+        AtomicReferenceArray<List<Boolean>> grades = new AtomicReferenceArray<>(batches.size());
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int index;
+            while (failure.get() == null && (index = next.getAndIncrement()) < batches.size()) {
+                try {
+                    grades.set(index, gradeBatch(question, batches.get(index), onIrrelevant, deadline));
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        };
+        // A worker only runs if it starts before the calling thread is done, otherwise it has nothing left to grade
+        List<Future<?>> workers = new ArrayList<>();
+        List<AtomicBoolean> started = new ArrayList<>();
+        for (int i = 1; i < Math.min(gradingConcurrency, batches.size()); i++) {
+            AtomicBoolean workerStarted = new AtomicBoolean();
+            started.add(workerStarted);
+            workers.add(executor.submit(() -> {
+                if (workerStarted.compareAndSet(false, true)) {
+                    worker.run();
+                }
+            }));
+        }
+        try {
+            worker.run();
+            for (int i = 0; i < workers.size(); i++) {
+                if (started.get(i).compareAndSet(false, true)) {
+                    workers.get(i).cancel(false);
+                } else {
+                    workers.get(i).get();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Interrupted while grading documents", e);
+        } catch (ExecutionException e) {
+            workers.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        // Grades are kept by batch index, so they line up with documents
+        List<List<Boolean>> result = new ArrayList<>(batches.size());
+        for (int i = 0; i < batches.size(); i++) {
+            result.add(grades.get(i));
+        }
+        return result;
+    }
+
+    private List<Boolean> gradeBatch(String question, List<String> batch, Runnable onIrrelevant, Deadline deadline) {
+        List<Boolean> grades = gradeBatch(question, batch, deadline);
+        if (grades.contains(false)) {
+            onIrrelevant.run();
+        }
+        return grades;
+    }
+
+    // Grades are null for the documents not graded before the deadline
+    private List<Boolean> gradeBatch(String question, List<String> batch, Deadline deadline) {
+        if (batch.size() > 1) {
+            GradeDocuments gradeDocuments = new GradeDocuments(batch, question);
+            Prompt prompt = StructuredPromptProcessor.toPrompt(gradeDocuments);
+            String scores;
+            try {
+                scores = chat(PromptType.GRADE_DOCUMENTS, prompt.text(), deadline); // [{'index': 0, 'score': 'yes'}, ...]
+            } catch (DeadlineExceededException e) {
+                return new ArrayList<>(Collections.nCopies(batch.size(), ungraded(e)));
+            }
+            List<Boolean> grades = GradeVerdicts.parse(scores, batch.size());
+            if (grades != null) {
+                return grades;
+            }
+            log.warn("Could not parse batched grades, falling back to per-document grading");
+        }
+        List<Boolean> grades = new ArrayList<>(batch.size());
+        for (String doc : batch) {
+            grades.add(isRelevant(doc, question, deadline));
+        }
+        return grades;
+    }
+
+    private Boolean isRelevant(String doc, String question, Deadline deadline) {
+        GradeDocument gradeDocument = new GradeDocument(doc, question);
+        Prompt prompt = StructuredPromptProcessor.toPrompt(gradeDocument);
+        try {
+            String score = chat(PromptType.GRADE_DOCUMENT, prompt.text(), deadline); // {'score': 'yes'}
+            return GradeVerdicts.isRelevant(score);
+        } catch (DeadlineExceededException e) {
+            return ungraded(e);
+        }
+    }
+
+    private Boolean ungraded(DeadlineExceededException e) {
+        if (ungradedDocumentPolicy == UngradedDocumentPolicy.FAIL) {
+            throw e;
+        }
+        return null;
+    }
 
     public CorrectiveStatefulBean transformQuery(CorrectiveStatefulBean state){
         log.info("---TRANSFORM QUERY---");
-        log.debug("--- Input: " + state.toString());
+        log.debug("--- Input: {}", state);
         String question = state.getQuestion();
         List<String> documents = state.getDocuments();
 
-        // Re-write question
-        RewriteQuery rewriteQuery = new RewriteQuery(question);
-        Prompt prompt = StructuredPromptProcessor.toPrompt(rewriteQuery);
-        String betterQuestion = chatLanguageModel.generate(prompt.text());
+        // Re-write question, unless it was already started while grading
+        String betterQuestion;
+        try {
+            betterQuestion = state.getSpeculativeQuestion() != null
+                    ? await(state.getSpeculativeQuestion(), state.getDeadline(), CallType.REWRITE)
+                    : rewrite(question, state.getDeadline());
+        } catch (DeadlineExceededException e) {
+            if (webSearchTimeoutPolicy == WebSearchTimeoutPolicy.FAIL) {
+                throw e;
+            }
+            // The web search is skipped as well, the question is only used for generation
+            log.warn("---TRANSFORM QUERY: DEADLINE EXCEEDED, KEEP THE QUESTION---");
+            betterQuestion = question;
+            state.setDegraded(true);
+        }
         state.setQuestion(betterQuestion);
         state.setDocuments(documents);
-        log.debug("--- Output: " + state.toString());
+        log.debug("--- Output: {}", state);
         return state;
     }
 
     public CorrectiveStatefulBean webSearch(CorrectiveStatefulBean state){
         log.info("---WEB SEARCH---");
-        log.debug("--- Input: " + state.toString());
+        log.debug("--- Input: {}", state);
         String question = state.getQuestion();
         List<String> documents = state.getDocuments();
 
-        // Web search
-        List<Content> webSearchResults = webSearchContentRetriever.retrieve(Query.from(question));
-        documents.addAll(webSearchResults.stream().map(Content::textSegment).map(TextSegment::text).collect(toList()));
+        // Web search, unless it was already started while grading
+        List<String> webSearchResults;
+        try {
+            webSearchResults = state.getSpeculativeWebSearchResults() != null
+                    ? await(state.getSpeculativeWebSearchResults(), state.getDeadline(), CallType.WEB_SEARCH)
+                    : search(question, state.getDeadline());
+        } catch (DeadlineExceededException e) {
+            if (state.getSpeculativeWebSearchResults() != null) {
+                state.getSpeculativeWebSearchResults().cancel(true);
+            }
+            if (webSearchTimeoutPolicy == WebSearchTimeoutPolicy.FAIL) {
+                throw e;
+            }
+            log.warn("---WEB SEARCH: DEADLINE EXCEEDED, GENERATE FROM THE {} KEPT DOCUMENTS---", documents.size());
+            webSearchResults = new ArrayList<>();
+            state.setDegraded(true);
+        }
+        state.setSpeculativeQuestion(null);
+        state.setSpeculativeWebSearchResults(null);
+        listener.onDocuments(DocumentStage.WEB_SEARCH, webSearchResults.size());
+        documents.addAll(webSearchResults);
         state.setDocuments(documents);
+        if (state.getDocumentScores() != null) {
+            webSearchResults.forEach(result -> state.getDocumentScores().add(null));
+        }
         state.setQuestion(question);
-        log.debug("--- Output: " + state.toString());
+        log.debug("--- Output: {}", state);
         return state;
     }
+
+    private String rewrite(String question, Deadline deadline) {
+        RewriteQuery rewriteQuery = new RewriteQuery(question);
+        Prompt prompt = StructuredPromptProcessor.toPrompt(rewriteQuery);
+        return chat(PromptType.REWRITE_QUERY, prompt.text(), deadline);
+    }
+
+    // Recorded once the hedged calls return, so a duplicate search is not recorded too
+    private List<String> search(String question, Deadline deadline) {
+        Timed<List<String>> results;
+        if (!(webSearchContentRetriever instanceof CachingContentRetriever)) {
+            results = hedgedCalls.call(CallType.WEB_SEARCH,
+                    () -> limited(CallType.WEB_SEARCH, webSearch(question, webSearchContentRetriever)),
+                    () -> hedge(CallType.WEB_SEARCH, webSearch(question, webSearchContentRetriever)),
+                    deadline);
+        } else {
+            // The call in flight of a caching retriever is awaited until the deadline, a duplicate search must not join it
+            CachingContentRetriever cachingRetriever = (CachingContentRetriever) webSearchContentRetriever;
+            results = hedgedCalls.call(CallType.WEB_SEARCH,
+                    () -> limited(CallType.WEB_SEARCH, webSearch(question, query -> cachingRetriever.retrieve(query, deadline))),
+                    () -> hedge(CallType.WEB_SEARCH, webSearch(question, cachingRetriever::retrieveUnshared)),
+                    deadline);
+        }
+        if (interactionRecorder != null) {
+            interactionRecorder.recordWebSearch(question, results.value, results.startedAt, results.elapsed);
+        }
+        return results.value;
+    }
+
+    private Supplier<Timed<List<String>>> webSearch(String question, ContentRetriever contentRetriever) {
+        return () -> {
+            Instant startedAt = interactionRecorder != null ? Instant.now() : null;
+            long start = System.nanoTime();
+            List<Content> webSearchResults = contentRetriever.retrieve(Query.from(question));
+            Duration elapsed = elapsed(start);
+            listener.onWebSearch(elapsed, webSearchResults.size());
+            return new Timed<>(webSearchResults.stream().map(Content::textSegment).map(TextSegment::text).collect(toList()), startedAt, elapsed);
+        };
+    }
+
+    // Grading calls are hedged, other calls are only bounded by the deadline
+    private String chat(PromptType promptType, String prompt, Deadline deadline) {
+        CallType callType = callType(promptType);
+        Supplier<Timed<Response<AiMessage>>> call = modelCall(promptType, prompt);
+        return recorded(prompt, hedgedCalls.call(callType,
+                () -> limited(callType, call),
+                callType == CallType.GRADE ? () -> hedge(callType, call) : null,
+                deadline));
+    }
+
+    private String chat(PromptType promptType, String prompt) {
+        return recorded(prompt, limited(callType(promptType), modelCall(promptType, prompt)));
+    }
+
+    // Every chat language model call goes through here, so it is measured by the listener
+    private Supplier<Timed<Response<AiMessage>>> modelCall(PromptType promptType, String prompt) {
+        return () -> {
+            Instant startedAt = interactionRecorder != null ? Instant.now() : null;
+            long start = System.nanoTime();
+            Response<AiMessage> response = chatLanguageModel.generate(UserMessage.from(prompt));
+            Duration elapsed = elapsed(start);
+            listener.onModelCall(promptType, elapsed, response.tokenUsage());
+            return new Timed<>(response, startedAt, elapsed);
+        };
+    }
+
+    // Recorded once the hedged calls return, so a duplicate call is not recorded too
+    private String recorded(String prompt, Timed<Response<AiMessage>> response) {
+        if (interactionRecorder != null) {
+            interactionRecorder.recordModelCall(Collections.singletonList(UserMessage.from(prompt)), response.value, response.startedAt, response.elapsed);
+        }
+        return response.value.content().text();
+    }
+
+    private <T> T limited(CallType callType, Supplier<T> call) {
+        return callLimiter != null ? callLimiter.call(callType, call) : call.get();
+    }
+
+    // A hedged duplicate only runs when a permit is free right away, so it never waits for one or takes one a queued call needs
+    private <T> Optional<T> hedge(CallType callType, Supplier<T> call) {
+        return callLimiter != null ? callLimiter.tryCall(callType, call) : Optional.of(call.get());
+    }
+
+    private static CallType callType(PromptType promptType) {
+        switch (promptType) {
+            case GENERATE_ANSWER:
+                return CallType.GENERATE;
+            case REWRITE_QUERY:
+                return CallType.REWRITE;
+            default:
+                return CallType.GRADE;
+        }
+    }
+
+    private static Duration elapsed(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    // Result of a call with its start and latency, e.g. to record the call that won
+    private static class Timed<T> {
+
+        private final T value;
+        private final Instant startedAt;
+        private final Duration elapsed;
+
+        private Timed(T value, Instant startedAt, Duration elapsed) {
+            this.value = value;
+            this.startedAt = startedAt;
+            this.elapsed = elapsed;
+        }
+    }
+
+    private static <T> T await(Future<T> future, Deadline deadline, CallType callType) {
+        if (deadline == null) {
+            return await(future);
+        }
+        try {
+            return future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new DeadlineExceededException(callType, "Speculative " + callType + " call did not complete before the deadline");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the speculative fallback", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the speculative fallback", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
 }
@@ -1,8 +1,14 @@
 package dev.langchain4j.rag.corrective.workflow;
 
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.rag.corrective.limit.Deadline;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 @Data
 public class CorrectiveStatefulBean {
@@ -11,6 +17,25 @@ public class CorrectiveStatefulBean {
     private String generation;
     private String webSearch;
     private List<String> documents;
+    // Retrieval score of each document, null when unknown (e.g. web search results)
+    private List<Double> documentScores;
+    // Receives the generated answer token by token, when set
+    @EqualsAndHashCode.Exclude
+    private StreamingResponseHandler<AiMessage> streamingHandler;
+    // Fallback branch started while grading, see SpeculativeFallback
+    @EqualsAndHashCode.Exclude
+    private Future<String> speculativeQuestion;
+    @EqualsAndHashCode.Exclude
+    private Future<List<String>> speculativeWebSearchResults;
+    // Embedding of the question when already computed, e.g. for the answer cache, reused by the retrieve node
+    @EqualsAndHashCode.Exclude
+    private Embedding questionEmbedding;
+    // Bounds the grading, query rewrite and web search calls of the request, when set
+    @EqualsAndHashCode.Exclude
+    private Deadline deadline;
+    // Set when the deadline left documents ungraded or skipped the query rewrite or web search, such answers are not cached
+    @EqualsAndHashCode.Exclude
+    private boolean degraded;
 
     public CorrectiveStatefulBean() {
     }
@@ -22,6 +47,7 @@ public class CorrectiveStatefulBean {
                 ", generation='" + generation + '\'' +
                 ", webSearch='" + webSearch + '\'' +
                 ", documents=" + documents +
+                ", documentScores=" + documentScores +
                 '}';
     }
 }
@@ -0,0 +1,61 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the response of a {@link dev.langchain4j.rag.corrective.prompt.GradeDocuments} prompt,
+ * e.g. {@code [{"index": 0, "score": "yes"}, {"index": 1, "score": "no"}]},
+ * and of a {@link dev.langchain4j.rag.corrective.prompt.GradeDocument} prompt, e.g. {@code {"score": "yes"}}.
+ */
+class GradeVerdicts {
+
+    private static final Pattern OBJECT = Pattern.compile("\\{[^{}]*}");
+    private static final Pattern INDEX = Pattern.compile("[\"']index[\"']\\s*:\\s*[\"']?(\\d{1,9})");
+    private static final Pattern SCORE = Pattern.compile("[\"']score[\"']\\s*:\\s*[\"'](yes|no)[\"']", Pattern.CASE_INSENSITIVE);
+
+    private GradeVerdicts() {
+    }
+
+    /**
+     * Returns the grade of a single document: relevant when the response contains "yes", ignoring case,
+     * so a reply that is not JSON, e.g. {@code Relevant: yes}, is still graded. Only batched verdicts are parsed strictly.
+     */
+    static boolean isRelevant(String response) {
+        return response != null && response.toLowerCase(Locale.ROOT).contains("yes");
+    }
+
+    /**
+     * Returns one grade per document, or {@code null} when the response does not hold
+     * exactly one verdict for each of the {@code expected} documents.
+     */
+    static List<Boolean> parse(String response, int expected) {
+        if (response == null) {
+            return null;
+        }
+        Boolean[] grades = new Boolean[expected];
+        int position = 0;
+        Matcher object = OBJECT.matcher(response);
+        while (object.find()) {
+            Matcher score = SCORE.matcher(object.group());
+            if (!score.find()) {
+                return null;
+            }
+            Matcher index = INDEX.matcher(object.group());
+            int i = index.find() ? Integer.parseInt(index.group(1)) : position;
+            if (i >= expected || grades[i] != null) {
+                return null;
+            }
+            grades[i] = score.group(1).equalsIgnoreCase("yes");
+            position++;
+        }
+        if (position != expected) {
+            return null;
+        }
+        return new ArrayList<>(Arrays.asList(grades));
+    }
+}
@@ -0,0 +1,171 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import dev.langchain4j.rag.corrective.limit.CallType;
+import dev.langchain4j.rag.corrective.limit.Deadline;
+import dev.langchain4j.rag.corrective.limit.DeadlineExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls so the caller waits at most until the deadline of its request.
+ * When a hedge delay is set and the call is still running after it, a duplicate call is started
+ * and the first result wins; the other call is cancelled. A failure is only returned once no other call is running.
+ * A hedge returning empty did not run, e.g. because no {@link dev.langchain4j.rag.corrective.limit.CallLimiter} permit
+ * was free right away: the first call goes on alone.
+ * <p>
+ * Calls without deadline nor hedge run on the calling thread. The others run on daemon threads of this class,
+ * never on the request executor: the callers are often tasks of that executor, e.g. concurrent grading workers,
+ * and waiting there for another task would starve a fixed-size pool.
+ */
+class HedgedCalls {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgedCalls.class);
+
+    // Shared by all instances, idle threads exit after a minute
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService CALLS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "corrective-rag-call-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long hedgeDelayNanos;
+
+    HedgedCalls(Duration hedgeDelay) {
+        // Calls are never duplicated unless hedgeDelay is set
+        this.hedgeDelayNanos = hedgeDelay == null ? -1 : hedgeDelay.toNanos();
+    }
+
+    <T> T call(CallType callType, Supplier<T> call, Supplier<Optional<T>> hedge, Deadline deadline) {
+        if (deadline != null && deadline.isExpired()) {
+            throw expired(callType, deadline);
+        }
+        boolean hedged = hedge != null && hedgeDelayNanos >= 0;
+        if (deadline == null && !hedged) {
+            return call.get();
+        }
+        Attempts<T> attempts = new Attempts<>();
+        try {
+            attempts.start(call);
+            if (hedged && !attempts.await(deadline == null ? hedgeDelayNanos : Math.min(hedgeDelayNanos, deadline.remainingNanos()))) {
+                if (deadline != null && deadline.isExpired()) {
+                    throw expired(callType, deadline);
+                }
+                log.debug("{} call still running after {} ms, hedging it", callType, Duration.ofNanos(hedgeDelayNanos).toMillis());
+                attempts.startHedge(hedge);
+            }
+            if (!attempts.await(deadline == null ? -1 : deadline.remainingNanos())) {
+                throw expired(callType, deadline);
+            }
+            return attempts.result();
+        } finally {
+            attempts.cancel();
+        }
+    }
+
+    private static DeadlineExceededException expired(CallType callType, Deadline deadline) {
+        log.warn("{} call did not complete before the deadline ({})", callType, deadline);
+        return new DeadlineExceededException(callType, callType + " call did not complete before the deadline");
+    }
+
+    private class Attempts<T> {
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Only used by the calling thread
+        private final List<Future<?>> futures = new ArrayList<>(2);
+
+        private void start(Supplier<T> call) {
+            attempt(() -> {
+                result.complete(call.get());
+                return true;
+            });
+        }
+
+        private void startHedge(Supplier<Optional<T>> hedge) {
+            attempt(() -> {
+                Optional<T> value = hedge.get();
+                if (!value.isPresent()) {
+                    log.debug("Hedged call did not run, no permit was free");
+                    return false;
+                }
+                result.complete(value.get());
+                return true;
+            });
+        }
+
+        private void attempt(BooleanSupplier attempt) {
+            running.incrementAndGet();
+            futures.add(CALLS.submit(() -> {
+                try {
+                    if (attempt.getAsBoolean()) {
+                        return;
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+                // The last attempt to end fails with the first failure, a hedge that did not run is never the only attempt
+                if (running.decrementAndGet() == 0) {
+                    result.completeExceptionally(failure.get());
+                }
+            }));
+        }
+
+        /**
+         * Waits for the first result or the last failure, forever when {@code timeoutNanos} is negative.
+         * Returns false on timeout.
+         */
+        private boolean await(long timeoutNanos) {
+            try {
+                if (timeoutNanos < 0) {
+                    result.get();
+                } else {
+                    result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+                }
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a call", e);
+            }
+        }
+
+        private T result() {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a call", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        private void cancel() {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import dev.langchain4j.model.Tokenizer;
+import dev.langchain4j.rag.corrective.store.Terms;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Knowledge refinement of the CRAG paper: kept documents are decomposed into strips of a few sentences,
+ * duplicate strips and strips sharing no term with the question are dropped, and the most relevant
+ * strips are packed into a token budget. Selected strips keep their original order.
+ */
+class KnowledgeStrips {
+
+    // Strips are sentences merged up to this size, so short sentences are not ranked on their own
+    private static final int MIN_STRIP_CHARS = 200;
+    private static final Pattern PARAGRAPHS = Pattern.compile("\\n\\s*\\n");
+    private static final Pattern SENTENCES = Pattern.compile("(?<=[.!?])\\s+");
+
+    private final Tokenizer tokenizer;
+    private final int tokenBudget;
+
+    KnowledgeStrips(Tokenizer tokenizer, int tokenBudget) {
+        this.tokenizer = tokenizer;
+        this.tokenBudget = tokenBudget;
+    }
+
+    String refine(String question, List<String> documents) {
+        Set<String> questionTerms = terms(question);
+        List<Strip> strips = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int d = 0; d < documents.size(); d++) {
+            for (String text : split(documents.get(d))) {
+                if (seen.add(normalize(text))) {
+                    strips.add(new Strip(d, strips.size(), text, relevance(questionTerms, text)));
+                }
+            }
+        }
+        // Drop the strips sharing no term with the question, unless none does
+        List<Strip> candidates = new ArrayList<>();
+        for (Strip strip : strips) {
+            if (strip.relevance > 0) {
+                candidates.add(strip);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = strips;
+        }
+
+        // Pack the most relevant strips first, then restore their order
+        candidates.sort(Comparator.comparingDouble((Strip strip) -> -strip.relevance).thenComparingInt(strip -> strip.position));
+        List<Strip> selected = new ArrayList<>();
+        int tokens = 0;
+        for (Strip strip : candidates) {
+            int stripTokens = tokens(strip.text);
+            if (tokens + stripTokens <= tokenBudget) {
+                selected.add(strip);
+                tokens += stripTokens;
+            }
+        }
+        if (selected.isEmpty() && !candidates.isEmpty()) {
+            // Even the best strip is over budget, keep its beginning
+            return truncate(candidates.get(0).text);
+        }
+        selected.sort(Comparator.comparingInt(strip -> strip.position));
+
+        StringBuilder context = new StringBuilder();
+        int document = -1;
+        for (Strip strip : selected) {
+            if (context.length() > 0) {
+                context.append(strip.document == document ? " " : "\n\n");
+            }
+            context.append(strip.text);
+            document = strip.document;
+        }
+        return context.toString();
+    }
+
+    // Longest prefix within the budget, found with a binary search on the token count
+    private String truncate(String text) {
+        if (tokenizer == null) {
+            return text.substring(0, Math.min(text.length(), tokenBudget * 4));
+        }
+        int low = 0;
+        int high = text.length();
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (tokens(text.substring(0, middle)) <= tokenBudget) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (low > 0 && Character.isHighSurrogate(text.charAt(low - 1))) {
+            low--;
+        }
+        return text.substring(0, low);
+    }
+
+    int tokens(String text) {
+        // Roughly 4 characters per token in English when no tokenizer is given
+        return tokenizer != null ? tokenizer.estimateTokenCountInText(text) : (text.length() + 3) / 4;
+    }
+
+    private static List<String> split(String document) {
+        List<String> strips = new ArrayList<>();
+        for (String paragraph : PARAGRAPHS.split(document)) {
+            StringBuilder strip = new StringBuilder();
+            for (String sentence : SENTENCES.split(paragraph.trim())) {
+                if (sentence.isEmpty()) {
+                    continue;
+                }
+                if (strip.length() > 0) {
+                    strip.append(' ');
+                }
+                strip.append(sentence);
+                if (strip.length() >= MIN_STRIP_CHARS) {
+                    strips.add(strip.toString());
+                    strip.setLength(0);
+                }
+            }
+            if (strip.length() > 0) {
+                strips.add(strip.toString());
+            }
+        }
+        return strips;
+    }
+
+    private static double relevance(Set<String> questionTerms, String strip) {
+        if (questionTerms.isEmpty()) {
+            return 0;
+        }
+        Set<String> stripTerms = terms(strip);
+        int shared = 0;
+        for (String term : questionTerms) {
+            if (stripTerms.contains(term)) {
+                shared++;
+            }
+        }
+        return (double) shared / questionTerms.size();
+    }
+
+    private static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        // Words of one or two characters carry too little meaning to match a strip on
+        for (String term : Terms.of(text)) {
+            if (term.length() > 2) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static class Strip {
+
+        private final int document;
+        private final int position;
+        private final String text;
+        private final double relevance;
+
+        private Strip(int document, int position, String text, double relevance) {
+            this.document = document;
+            this.position = position;
+            this.text = text;
+            this.relevance = relevance;
+        }
+    }
+}
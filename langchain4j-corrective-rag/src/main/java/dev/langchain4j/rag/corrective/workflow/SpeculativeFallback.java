@@ -0,0 +1,23 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+/**
+ * When to start the fallback branch (query rewrite, then web search) while documents are still being graded.
+ * The speculative work is cancelled and discarded if every document turns out to be relevant.
+ */
+public enum SpeculativeFallback {
+
+    /**
+     * The fallback branch only starts after grading, when a document is not relevant.
+     */
+    DISABLED,
+
+    /**
+     * The fallback branch starts as soon as one document is graded as not relevant.
+     */
+    ON_FIRST_IRRELEVANT,
+
+    /**
+     * The fallback branch starts together with grading.
+     */
+    IMMEDIATE
+}
@@ -0,0 +1,48 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Documents accepted or rejected from their retrieval score alone, documents sent to the grading model,
+ * and the number of grading calls saved by the triage.
+ */
+public class TriageStats {
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong graded = new AtomicLong();
+    private final AtomicLong savedCalls = new AtomicLong();
+
+    void record(long accepted, long rejected, long graded, long savedCalls) {
+        this.accepted.addAndGet(accepted);
+        this.rejected.addAndGet(rejected);
+        this.graded.addAndGet(graded);
+        this.savedCalls.addAndGet(savedCalls);
+    }
+
+    public long accepted() {
+        return accepted.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    public long graded() {
+        return graded.get();
+    }
+
+    public long savedCalls() {
+        return savedCalls.get();
+    }
+
+    @Override
+    public String toString() {
+        return "TriageStats{" +
+                "accepted=" + accepted() +
+                ", rejected=" + rejected() +
+                ", graded=" + graded() +
+                ", savedCalls=" + savedCalls() +
+                '}';
+    }
+}
@@ -0,0 +1,22 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+/**
+ * What to do with a document whose grading call did not complete before the deadline of the request.
+ */
+public enum UngradedDocumentPolicy {
+
+    /**
+     * The document is kept, as if graded relevant.
+     */
+    KEEP,
+
+    /**
+     * The document is discarded, as if graded not relevant, which triggers the web search fallback.
+     */
+    DISCARD,
+
+    /**
+     * The answer fails with a {@link dev.langchain4j.rag.corrective.limit.DeadlineExceededException}.
+     */
+    FAIL
+}
@@ -0,0 +1,17 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+/**
+ * What to do when the query rewrite or the web search did not complete before the deadline of the request.
+ */
+public enum WebSearchTimeoutPolicy {
+
+    /**
+     * The web search is skipped and the answer is generated from the documents already kept.
+     */
+    SKIP,
+
+    /**
+     * The answer fails with a {@link dev.langchain4j.rag.corrective.limit.DeadlineExceededException}.
+     */
+    FAIL
+}
@@ -4,9 +4,14 @@ import dev.langchain4j.data.document.Document;
 import dev.langchain4j.data.document.loader.UrlDocumentLoader;
 import dev.langchain4j.data.document.parser.TextDocumentParser;
 import dev.langchain4j.data.document.transformer.HtmlTextExtractor;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.mistralai.MistralAiChatModel;
 import dev.langchain4j.model.mistralai.MistralAiChatModelName;
+import dev.langchain4j.model.mistralai.MistralAiStreamingChatModel;
+import dev.langchain4j.model.output.Response;
 import dev.langchain4j.rag.content.retriever.WebSearchContentRetriever;
 import dev.langchain4j.rag.corrective.internal.DefaultCorrectiveRag;
 import dev.langchain4j.web.search.tavily.TavilyWebSearchEngine;
@@ -15,8 +20,11 @@ import org.junit.jupiter.api.Test;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 
 
@@ -130,6 +138,66 @@ class CorrectiveRagIT {
 
     }
 
+    @Test
+    void run_streaming_the_answer_using_default_embeddingContentRetriever() throws Exception {
+        // given
+        CorrectiveRag correctiveRagStreaming = DefaultCorrectiveRag.builder()
+                .documents(documents)
+                .webSearchContentRetriever(webRetriever)
+                .chatLanguageModel(llm)
+                .streamingChatLanguageModel(MistralAiStreamingChatModel.builder()
+                        .apiKey(System.getenv("MISTRAL_AI_API_KEY"))
+                        .modelName(MistralAiChatModelName.MISTRAL_LARGE_LATEST)
+                        .temperature(0.0)
+                        .build())
+                .build();
+
+        String question = "How does the AlphaCodium paper work?";
+        StringBuilder tokens = new StringBuilder();
+        CompletableFuture<Response<AiMessage>> futureResponse = new CompletableFuture<>();
+
+        // when
+        correctiveRagStreaming.answer(question, new StreamingResponseHandler<AiMessage>() {
+            @Override
+            public void onNext(String token) {
+                tokens.append(token);
+            }
+
+            @Override
+            public void onComplete(Response<AiMessage> response) {
+                futureResponse.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                futureResponse.completeExceptionally(error);
+            }
+        });
+        Response<AiMessage> response = futureResponse.get(120, SECONDS);
+
+        // then
+        assertThat(response.content().text()).containsIgnoringWhitespaces("code generation");
+        assertThat(tokens.toString()).isEqualTo(response.content().text());
+    }
+
+    @Test
+    void run_batch_of_questions_using_default_embeddingContentRetriever() {
+        // given
+        List<UserMessage> questions = Arrays.asList(
+                UserMessage.from("How does the AlphaCodium paper work?"),
+                UserMessage.from("What are the types of agent memory?"),
+                UserMessage.from("How does the AlphaCodium paper work?")
+        );
+
+        // when
+        List<AiMessage> answers = correctiveRag.answerAll(questions);
+
+        // then
+        assertThat(answers).hasSize(3);
+        assertThat(answers.get(0).text()).containsIgnoringWhitespaces("code generation");
+        assertThat(answers.get(2).text()).isEqualTo(answers.get(0).text());
+    }
+
     private static List<Document> loadDocuments(String... uris) {
         List<Document> documents = new ArrayList<>();
         for (String uri : uris) {
@@ -0,0 +1,176 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.corrective.limit.Deadline;
+import dev.langchain4j.rag.corrective.limit.DeadlineExceededException;
+import dev.langchain4j.rag.query.Query;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingContentRetrieverTest {
+
+    @Test
+    void should_share_one_call_between_concurrent_identical_queries() throws Exception {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ContentRetriever slowSearch = query -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonList(Content.from("result for " + query.text()));
+        };
+        CachingContentRetriever retriever = CachingContentRetriever.builder()
+                .delegate(slowSearch)
+                .build();
+
+        // when
+        List<CompletableFuture<List<Content>>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> retriever.retrieve(Query.from("AlphaCodium paper"))));
+        }
+        while (calls.get() == 0) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        // then
+        for (CompletableFuture<List<Content>> result : results) {
+            assertThat(result.get()).containsExactly(Content.from("result for AlphaCodium paper"));
+        }
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(retriever.stats().savedCalls()).isEqualTo(3L);
+    }
+
+    @Test
+    void should_complete_shared_call_for_other_callers_when_one_caller_is_cancelled() throws Exception {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger interrupts = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ContentRetriever slowSearch = query -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupts.incrementAndGet();
+                throw new RuntimeException(e);
+            }
+            return Collections.singletonList(Content.from("result for " + query.text()));
+        };
+        CachingContentRetriever retriever = CachingContentRetriever.builder()
+                .delegate(slowSearch)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Content>> cancelled = executor.submit(() -> retriever.retrieve(Query.from("AlphaCodium paper")));
+            while (calls.get() == 0) {
+                Thread.sleep(5);
+            }
+            Future<List<Content>> joined = executor.submit(() -> retriever.retrieve(Query.from("AlphaCodium paper")));
+            Thread.sleep(50);
+
+            // when
+            cancelled.cancel(true);
+            Thread.sleep(50);
+            release.countDown();
+
+            // then
+            assertThat(joined.get(5, TimeUnit.SECONDS)).containsExactly(Content.from("result for AlphaCodium paper"));
+            assertThat(calls.get()).isEqualTo(1);
+            assertThat(interrupts.get()).isEqualTo(0);
+            // The cancelled caller stopped waiting, its thread is free again
+            assertThat(executor.submit(() -> "free").get(5, TimeUnit.SECONDS)).isEqualTo("free");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_stop_waiting_for_shared_call_at_deadline() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        CachingContentRetriever retriever = CachingContentRetriever.builder()
+                .delegate(query -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return Collections.singletonList(Content.from("result"));
+                })
+                .build();
+
+        // when
+        long start = System.nanoTime();
+        try {
+            assertThatThrownBy(() -> retriever.retrieve(Query.from("AlphaCodium paper"), Deadline.after(Duration.ofMillis(100))))
+                    .isInstanceOf(DeadlineExceededException.class);
+
+            // then
+            assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(2000L);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void should_keep_results_for_time_to_live() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        CachingContentRetriever retriever = CachingContentRetriever.builder()
+                .delegate(query -> {
+                    calls.incrementAndGet();
+                    return Collections.singletonList(Content.from("result"));
+                })
+                .timeToLive(Duration.ofMinutes(1))
+                .build();
+
+        // when
+        retriever.retrieve(Query.from("AlphaCodium paper"));
+        retriever.retrieve(Query.from("  alphacodium   PAPER "));
+
+        // then
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(retriever.stats().hits()).isEqualTo(1L);
+    }
+
+    @Test
+    void should_not_keep_results_without_time_to_live() {
+        // given
+        AtomicInteger calls = new AtomicInteger();
+        CachingContentRetriever retriever = CachingContentRetriever.builder()
+                .delegate(query -> {
+                    calls.incrementAndGet();
+                    return Collections.singletonList(Content.from("result"));
+                })
+                .build();
+
+        // when
+        retriever.retrieve(Query.from("AlphaCodium paper"));
+        retriever.retrieve(Query.from("AlphaCodium paper"));
+
+        // then
+        assertThat(calls.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,90 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileGradeCacheTest {
+
+    private static final String GRADER = "OpenAiChatModel";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_reload_grades_after_restart() throws Exception {
+        // given
+        Path file = tempDir.resolve("grades.log");
+        String relevantKey = GradeCache.key(GRADER, "What is CRAG?", "Corrective RAG grades retrieved documents.");
+        String irrelevantKey = GradeCache.key(GRADER, "What is CRAG?", "The weather is sunny.");
+        try (FileGradeCache cache = FileGradeCache.builder().file(file).build()) {
+            cache.put(relevantKey, true);
+            cache.put(irrelevantKey, false);
+        }
+
+        // when
+        try (FileGradeCache cache = FileGradeCache.builder().file(file).build()) {
+
+            // then
+            assertThat(cache.get(relevantKey)).isTrue();
+            assertThat(cache.get(irrelevantKey)).isFalse();
+            assertThat(cache.get(GradeCache.key(GRADER, "What is CRAG?", "Unknown document"))).isNull();
+            assertThat(cache.stats().hits()).isEqualTo(2L);
+            assertThat(cache.stats().misses()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void should_normalize_question_and_document_in_key() {
+        assertThat(GradeCache.key(GRADER, "  What is   CRAG? ", "Some\n document"))
+                .isEqualTo(GradeCache.key(GRADER, "what is crag?", "some document"));
+    }
+
+    @Test
+    void should_not_share_grades_between_graders() {
+        assertThat(GradeCache.key("gpt-4o-mini", "What is CRAG?", "Some document"))
+                .isNotEqualTo(GradeCache.key("llama3", "What is CRAG?", "Some document"));
+    }
+
+    @Test
+    void should_flush_grades_in_batches() throws Exception {
+        // given
+        Path file = tempDir.resolve("grades.log");
+        try (FileGradeCache cache = FileGradeCache.builder().file(file).flushEvery(2).build()) {
+
+            // when
+            cache.put(GradeCache.key(GRADER, "What is CRAG?", "First document"), true);
+
+            // then
+            assertThat(Files.readAllLines(file)).isEmpty();
+            cache.put(GradeCache.key(GRADER, "What is CRAG?", "Second document"), false);
+            assertThat(Files.readAllLines(file)).hasSize(2);
+        }
+    }
+
+    @Test
+    void should_compact_file_on_load() throws Exception {
+        // given
+        Path file = tempDir.resolve("grades.log");
+        String key = GradeCache.key(GRADER, "What is CRAG?", "Some document");
+        try (FileGradeCache cache = FileGradeCache.builder().file(file).build()) {
+            cache.put(key, false);
+            cache.put(key, true);
+            cache.put(GradeCache.key(GRADER, "What is CRAG?", "Another document"), true);
+        }
+        Files.write(file, "truncated line\n".getBytes(), StandardOpenOption.APPEND);
+
+        // when
+        try (FileGradeCache cache = FileGradeCache.builder().file(file).build()) {
+
+            // then
+            assertThat(Files.readAllLines(file)).hasSize(2);
+            assertThat(cache.get(key)).isTrue();
+        }
+    }
+}
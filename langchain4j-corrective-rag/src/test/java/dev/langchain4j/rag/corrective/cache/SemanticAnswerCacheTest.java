@@ -0,0 +1,109 @@
+package dev.langchain4j.rag.corrective.cache;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.message.AiMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SemanticAnswerCacheTest {
+
+    @Test
+    void should_return_answer_of_similar_question() {
+        // given
+        SemanticAnswerCache cache = SemanticAnswerCache.builder()
+                .similarityThreshold(0.9)
+                .build();
+        cache.put(Embedding.from(new float[]{1, 0, 0}), AiMessage.from("cached"));
+
+        // when / then
+        assertThat(cache.get(Embedding.from(new float[]{0.95f, 0.1f, 0}))).isPresent();
+        assertThat(cache.get(Embedding.from(new float[]{0, 1, 0}))).isNotPresent();
+        assertThat(cache.stats().hits()).isEqualTo(1L);
+        assertThat(cache.stats().misses()).isEqualTo(1L);
+    }
+
+    @Test
+    void should_evict_least_recently_used_answer() {
+        // given
+        SemanticAnswerCache cache = SemanticAnswerCache.builder()
+                .maxSize(2)
+                .build();
+        Embedding first = Embedding.from(new float[]{1, 0, 0});
+        Embedding second = Embedding.from(new float[]{0, 1, 0});
+        Embedding third = Embedding.from(new float[]{0, 0, 1});
+        cache.put(first, AiMessage.from("first"));
+        cache.put(second, AiMessage.from("second"));
+
+        // when
+        cache.get(first);
+        cache.put(third, AiMessage.from("third"));
+
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(first)).isPresent();
+        assertThat(cache.get(second)).isNotPresent();
+        assertThat(cache.stats().evictions()).isEqualTo(1L);
+    }
+
+    @Test
+    void should_expire_answers_after_time_to_live() throws InterruptedException {
+        // given
+        SemanticAnswerCache cache = SemanticAnswerCache.builder()
+                .timeToLive(Duration.ofMillis(10))
+                .build();
+        Embedding embedding = Embedding.from(new float[]{1, 0, 0});
+        cache.put(embedding, AiMessage.from("cached"));
+
+        // when
+        Thread.sleep(50);
+
+        // then
+        assertThat(cache.get(embedding)).isNotPresent();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void should_answer_lookups_while_answers_are_added_concurrently() throws Exception {
+        // given
+        SemanticAnswerCache cache = SemanticAnswerCache.builder()
+                .maxSize(16)
+                .build();
+        Embedding cached = Embedding.from(new float[]{1, 0, 0});
+        cache.put(cached, AiMessage.from("cached"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        List<Future<Boolean>> lookups = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                int thread = i;
+                lookups.add(executor.submit(() -> {
+                    boolean found = true;
+                    for (int j = 0; j < 1000; j++) {
+                        if (thread == 0) {
+                            cache.put(Embedding.from(new float[]{0, 1, j}), AiMessage.from("answer " + j));
+                        }
+                        found &= cache.get(cached).isPresent();
+                    }
+                    return found;
+                }));
+            }
+
+            // then
+            for (Future<Boolean> lookup : lookups) {
+                assertThat(lookup.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(cache.size()).isEqualTo(16);
+    }
+}
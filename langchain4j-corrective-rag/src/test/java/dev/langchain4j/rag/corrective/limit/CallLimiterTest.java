@@ -0,0 +1,133 @@
+package dev.langchain4j.rag.corrective.limit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CallLimiterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_reject_calls_when_queue_is_full() throws Exception {
+        // given
+        CallLimiter limiter = CallLimiter.builder()
+                .maxConcurrentGradeCalls(1)
+                .maxQueueDepth(1)
+                .build();
+        Future<String> inFlight = executor.submit(() -> limiter.call(CallType.GRADE, this::awaitRelease));
+        await(() -> limiter.inFlight(CallType.GRADE) == 1);
+        Future<String> queued = executor.submit(() -> limiter.call(CallType.GRADE, () -> "queued"));
+        await(() -> limiter.queued(CallType.GRADE) == 1);
+
+        // then
+        assertThatThrownBy(() -> limiter.call(CallType.GRADE, () -> "rejected"))
+                .isInstanceOf(CallRejectedException.class);
+        assertThat(limiter.rejected(CallType.GRADE)).isEqualTo(1L);
+        assertThat(limiter.call(CallType.GENERATE, () -> "other pools are not affected")).isEqualTo("other pools are not affected");
+
+        release.countDown();
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo("released");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    void should_give_model_permits_to_generate_before_grade() throws Exception {
+        // given
+        CallLimiter limiter = CallLimiter.builder()
+                .maxConcurrentModelCalls(1)
+                .build();
+        List<CallType> order = Collections.synchronizedList(new ArrayList<>());
+        Future<String> inFlight = executor.submit(() -> limiter.call(CallType.GRADE, this::awaitRelease));
+        await(() -> limiter.inFlight(CallType.GRADE) == 1);
+        Future<?> grade = executor.submit(() -> limiter.call(CallType.GRADE, () -> order.add(CallType.GRADE)));
+        await(() -> limiter.queued(CallType.GRADE) == 1);
+        Future<?> generate = executor.submit(() -> limiter.call(CallType.GENERATE, () -> order.add(CallType.GENERATE)));
+        await(() -> limiter.queued(CallType.GENERATE) == 1);
+
+        // when
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        grade.get(5, TimeUnit.SECONDS);
+        generate.get(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(order).containsExactly(CallType.GENERATE, CallType.GRADE);
+    }
+
+    @Test
+    void should_reject_calls_waiting_longer_than_max_wait() throws Exception {
+        // given
+        CallLimiter limiter = CallLimiter.builder()
+                .maxConcurrentWebSearches(1)
+                .maxWait(Duration.ofMillis(50))
+                .build();
+        executor.submit(() -> limiter.call(CallType.WEB_SEARCH, this::awaitRelease));
+        await(() -> limiter.inFlight(CallType.WEB_SEARCH) == 1);
+
+        // then
+        assertThatThrownBy(() -> limiter.call(CallType.WEB_SEARCH, () -> "too late"))
+                .isInstanceOf(CallRejectedException.class);
+        assertThat(limiter.queued(CallType.WEB_SEARCH)).isEqualTo(0);
+    }
+
+    @Test
+    void should_only_try_a_call_when_a_permit_is_free_right_away() throws Exception {
+        // given
+        CallLimiter limiter = CallLimiter.builder()
+                .maxConcurrentGradeCalls(1)
+                .build();
+        Future<String> inFlight = executor.submit(() -> limiter.call(CallType.GRADE, this::awaitRelease));
+        await(() -> limiter.inFlight(CallType.GRADE) == 1);
+
+        // when
+        Optional<String> skipped = limiter.tryCall(CallType.GRADE, () -> "hedge");
+        release.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        Optional<String> called = limiter.tryCall(CallType.GRADE, () -> "hedge");
+
+        // then
+        assertThat(skipped.isPresent()).isFalse();
+        assertThat(called.get()).isEqualTo("hedge");
+        assertThat(limiter.rejected(CallType.GRADE)).isEqualTo(0L);
+        assertThat(limiter.inFlight(CallType.GRADE)).isEqualTo(0);
+    }
+
+    private String awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+            return "released";
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,62 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrectiveRagMetricsTest {
+
+    @Test
+    void should_aggregate_model_calls_and_fallback_rate() {
+        // given
+        CorrectiveRagMetrics metrics = new CorrectiveRagMetrics();
+        CorrectiveRagListener failing = new CorrectiveRagListener() {
+            @Override
+            public void onAnswer(Duration elapsed, boolean webSearch) {
+                throw new IllegalStateException("listener bug");
+            }
+        };
+        CorrectiveRagListener listener = CorrectiveRagListener.of(failing, metrics, null);
+
+        // when
+        listener.onModelCall(PromptType.GRADE_DOCUMENT, Duration.ofMillis(40), new TokenUsage(100, 1));
+        listener.onModelCall(PromptType.GRADE_DOCUMENT, Duration.ofMillis(60), null);
+        listener.onModelCall(PromptType.GENERATE_ANSWER, Duration.ofMillis(900), new TokenUsage(500, 200));
+        listener.onNode("Grade Node", Duration.ofMillis(100));
+        listener.onDocuments(DocumentStage.RETRIEVED, 3);
+        listener.onDocuments(DocumentStage.RELEVANT, 1);
+        listener.onAnswer(Duration.ofSeconds(1), true);
+        listener.onAnswer(Duration.ofSeconds(1), false);
+
+        // then
+        assertThat(metrics.modelCalls(PromptType.GRADE_DOCUMENT).count()).isEqualTo(2L);
+        assertThat(metrics.modelCallCount()).isEqualTo(3L);
+        assertThat(metrics.inputTokens(PromptType.GRADE_DOCUMENT)).isEqualTo(100L);
+        assertThat(metrics.outputTokens(PromptType.GENERATE_ANSWER)).isEqualTo(200L);
+        assertThat(metrics.node("Grade Node").count()).isEqualTo(1L);
+        assertThat(metrics.documents(DocumentStage.RETRIEVED)).isEqualTo(3L);
+        assertThat(metrics.documents(DocumentStage.RELEVANT)).isEqualTo(1L);
+        assertThat(metrics.webSearchFallbackRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void should_approximate_percentiles_with_bucket_bounds() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        for (int i = 0; i < 99; i++) {
+            histogram.record(Duration.ofMillis(3));
+        }
+        histogram.record(Duration.ofMillis(700));
+
+        // then
+        assertThat(histogram.count()).isEqualTo(100L);
+        assertThat(histogram.percentile(50)).isEqualTo(Duration.ofMillis(4));
+        assertThat(histogram.percentile(100)).isEqualTo(Duration.ofMillis(700));
+        assertThat(histogram.max()).isEqualTo(Duration.ofMillis(700));
+    }
+}
@@ -0,0 +1,41 @@
+package dev.langchain4j.rag.corrective.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkflowTraceTest {
+
+    @Test
+    void should_fingerprint_the_path_taken_through_the_graph() {
+        // given
+        WorkflowTrace generate = trace("Retrieve Node", "Grade Node", "Generate Node");
+        WorkflowTrace sameGenerate = trace("Retrieve Node", "Grade Node", "Generate Node");
+        WorkflowTrace webSearch = trace("Retrieve Node", "Grade Node", "Re-Write Query Node", "WebSearch Node", "Generate Node");
+
+        // then
+        assertThat(generate.fingerprint()).isEqualTo("Retrieve Node -> Grade Node -> Generate Node -> END");
+        assertThat(sameGenerate.fingerprint()).isEqualTo(generate.fingerprint());
+        assertThat(webSearch.fingerprint().equals(generate.fingerprint())).isFalse();
+        assertThat(webSearch.nodes()).hasSize(5);
+    }
+
+    @Test
+    void should_format_transitions_with_node_durations() {
+        // given
+        WorkflowTrace trace = trace("Grade Node", "Generate Node");
+
+        // then
+        assertThat(trace.toString()).isEqualTo("Grade Node (10 ms) -> Generate Node\nGenerate Node (10 ms) -> END\n");
+    }
+
+    private static WorkflowTrace trace(String... nodes) {
+        WorkflowTrace trace = new WorkflowTrace();
+        for (String node : nodes) {
+            trace.record(node, Duration.ofMillis(10));
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,105 @@
+package dev.langchain4j.rag.corrective.replay;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.query.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReplayLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger modelCalls = new AtomicInteger();
+
+    // Answers each prompt with a numbered response, so replayed responses can be told apart
+    private final ChatLanguageModel chatLanguageModel = messages ->
+            Response.from(AiMessage.from("response " + modelCalls.incrementAndGet()));
+
+    private final ContentRetriever webSearchContentRetriever = query ->
+            Collections.singletonList(Content.from("result for " + query.text()));
+
+    @Test
+    void should_replay_recorded_responses_in_recorded_order() throws Exception {
+        // given
+        Path file = tempDir.resolve("interactions.log");
+        try (InteractionRecorder recorder = InteractionRecorder.builder().file(file).build()) {
+            ChatLanguageModel recorded = recorder.recording(chatLanguageModel);
+            recorded.generate("grade this");
+            recorded.generate("grade this");
+            recorded.generate("rewrite this");
+            recorder.recordingWebSearch(webSearchContentRetriever).retrieve(Query.from("CRAG"));
+            recorder.recordAnswer("What is CRAG?", "Corrective RAG", Instant.now(), Duration.ofMillis(5));
+            assertThat(recorder.recorded()).isEqualTo(5L);
+        }
+
+        // when
+        ReplayLog replayLog = ReplayLog.load(file);
+        ChatLanguageModel replayed = replayLog.chatLanguageModel(0, null);
+
+        // then
+        assertThat(replayLog.size()).isEqualTo(5);
+        assertThat(replayed.generate("grade this")).isEqualTo("response 1");
+        assertThat(replayed.generate("grade this")).isEqualTo("response 2");
+        assertThat(replayed.generate("grade this")).isEqualTo("response 1");
+        assertThat(replayed.generate("rewrite this")).isEqualTo("response 3");
+        List<Content> results = replayLog.webSearchContentRetriever(0, null).retrieve(Query.from("CRAG"));
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).textSegment().text()).isEqualTo("result for CRAG");
+        List<Interaction> answers = replayLog.interactions(InteractionType.ANSWER);
+        assertThat(answers).hasSize(1);
+        assertThat(answers.get(0).key()).isEqualTo("What is CRAG?");
+        assertThat(answers.get(0).latency()).isEqualTo(Duration.ofMillis(5));
+        assertThat(modelCalls.get()).isEqualTo(3);
+        assertThat(replayLog.served()).isEqualTo(5L);
+    }
+
+    @Test
+    void should_call_fallback_or_fail_for_prompts_not_recorded() throws Exception {
+        // given
+        Path file = tempDir.resolve("interactions.log");
+        try (InteractionRecorder recorder = InteractionRecorder.builder().file(file).build()) {
+            recorder.recording(chatLanguageModel).generate("grade this");
+        }
+        ReplayLog replayLog = ReplayLog.load(file);
+
+        // when / then
+        assertThat(replayLog.chatLanguageModel(0, chatLanguageModel).generate("new prompt")).isEqualTo("response 2");
+        assertThatThrownBy(() -> replayLog.chatLanguageModel(0, null).generate("new prompt"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(replayLog.misses()).isEqualTo(2L);
+    }
+
+    @Test
+    void should_ignore_incomplete_last_record() throws Exception {
+        // given
+        Path file = tempDir.resolve("interactions.log");
+        try (InteractionRecorder recorder = InteractionRecorder.builder().file(file).build()) {
+            recorder.recording(chatLanguageModel).generate("grade this");
+        }
+        Files.write(file, new byte[]{100, 0, 0, 0, 'M'}, StandardOpenOption.APPEND);
+
+        // when
+        ReplayLog replayLog = ReplayLog.load(file);
+
+        // then
+        assertThat(replayLog.size()).isEqualTo(1);
+        assertThat(replayLog.chatLanguageModel(0, null).generate("grade this")).isEqualTo("response 1");
+    }
+}
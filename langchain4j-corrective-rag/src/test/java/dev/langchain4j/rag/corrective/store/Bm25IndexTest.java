@@ -0,0 +1,67 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Bm25IndexTest {
+
+    private static final TextSegment REACT = TextSegment.from("ReAct interleaves reasoning traces and actions.");
+    private static final TextSegment MEMORY = TextSegment.from("Agents keep a long-term memory of past actions and reflections.");
+    private static final TextSegment WEATHER = TextSegment.from("The weather is sunny today.");
+
+    @Test
+    void should_rank_segments_by_rare_query_terms() {
+        // given
+        Bm25Index index = new Bm25Index();
+        index.add(Arrays.asList(REACT, MEMORY, WEATHER));
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = index.search("What is ReAct and how are actions chosen?", 3);
+
+        // then
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(matches).hasSize(2);
+        assertThat(matches.get(0).embedded()).isEqualTo(REACT);
+        assertThat(matches.get(1).embedded()).isEqualTo(MEMORY);
+        assertThat(matches.get(0).score()).isGreaterThan(matches.get(1).score());
+    }
+
+    @Test
+    void should_return_no_matches_without_shared_terms() {
+        // given
+        Bm25Index index = new Bm25Index();
+        index.add(Arrays.asList(REACT, WEATHER));
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = index.search("quantum chromodynamics", 3);
+
+        // then
+        assertThat(matches).isEmpty();
+        assertThat(new Bm25Index().search("ReAct", 3)).isEmpty();
+    }
+
+    @Test
+    void should_fuse_rankings_favouring_segments_found_by_both() {
+        // given
+        List<EmbeddingMatch<TextSegment>> vector = Arrays.asList(match(MEMORY), match(WEATHER));
+        List<EmbeddingMatch<TextSegment>> lexical = Arrays.asList(match(REACT), match(WEATHER));
+
+        // when
+        List<TextSegment> fused = ReciprocalRankFusion.fuse(2, Arrays.asList(vector, lexical));
+
+        // then
+        assertThat(fused).containsExactly(WEATHER, MEMORY);
+        assertThat(ReciprocalRankFusion.fuse(3, Arrays.asList(vector, emptyList()))).containsExactly(MEMORY, WEATHER);
+    }
+
+    private static EmbeddingMatch<TextSegment> match(TextSegment segment) {
+        return new EmbeddingMatch<>(1.0, segment.text(), null, segment);
+    }
+}
@@ -0,0 +1,138 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static dev.langchain4j.store.embedding.filter.MetadataFilterBuilder.metadataKey;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswEmbeddingStoreTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void should_find_nearest_neighbours_with_high_recall() {
+        // given
+        HnswEmbeddingStore store = HnswEmbeddingStore.builder().m(8).efConstruction(100).efSearch(50).seed(7L).build();
+        for (int i = 0; i < 2000; i++) {
+            store.add(randomEmbedding(32), TextSegment.from("segment " + i));
+        }
+        List<Embedding> queries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            queries.add(randomEmbedding(32));
+        }
+
+        // when
+        RecallReport report = store.recall(queries, 10);
+
+        // then
+        assertThat(store.size()).isEqualTo(2000);
+        assertThat(report.queries()).isEqualTo(50);
+        assertThat(report.recall()).isGreaterThan(0.9);
+    }
+
+    @Test
+    void should_not_return_removed_embeddings() {
+        // given
+        HnswEmbeddingStore store = HnswEmbeddingStore.builder().build();
+        List<String> ids = store.addAll(
+                Arrays.asList(Embedding.from(new float[]{1, 0}), Embedding.from(new float[]{0.9f, 0.1f}), Embedding.from(new float[]{0, 1})),
+                Arrays.asList(TextSegment.from("a"), TextSegment.from("b"), TextSegment.from("c")));
+
+        // when
+        store.remove(ids.get(0));
+        List<EmbeddingMatch<TextSegment>> matches = store.findRelevant(Embedding.from(new float[]{1, 0}), 2, 0.0);
+
+        // then
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(matches).hasSize(2);
+        assertThat(matches.get(0).embedded().text()).isEqualTo("b");
+        assertThat(matches.get(1).embedded().text()).isEqualTo("c");
+        assertThat(store.findRelevant(Embedding.from(new float[]{1, 0}), 3, 0.9)).hasSize(1);
+    }
+
+    @Test
+    void should_return_max_results_when_the_closest_embeddings_are_removed() {
+        // given
+        HnswEmbeddingStore store = HnswEmbeddingStore.builder().m(8).efConstruction(100).efSearch(10).seed(7L).build();
+        for (int i = 0; i < 500; i++) {
+            store.add(randomEmbedding(16), TextSegment.from("segment " + i));
+        }
+        EmbeddingSearchRequest request = EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(16))
+                .maxResults(10)
+                .build();
+        List<String> closest = new ArrayList<>();
+        store.exactSearch(EmbeddingSearchRequest.builder()
+                .queryEmbedding(request.queryEmbedding())
+                .maxResults(100)
+                .build()).matches().forEach(match -> closest.add(match.embeddingId()));
+
+        // when
+        store.removeAll(closest);
+        List<EmbeddingMatch<TextSegment>> matches = store.search(request).matches();
+
+        // then
+        assertThat(store.size()).isEqualTo(400);
+        assertThat(matches).hasSize(10);
+        matches.forEach(match -> assertThat(closest).doesNotContain(match.embeddingId()));
+    }
+
+    @Test
+    void should_rebuild_the_graph_once_most_embeddings_are_removed() {
+        // given
+        HnswEmbeddingStore store = HnswEmbeddingStore.builder().m(8).efConstruction(100).seed(7L).build();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(store.add(randomEmbedding(16), TextSegment.from("segment " + i)));
+        }
+
+        // when
+        store.removeAll(ids.subList(0, 200));
+        RecallReport report = store.recall(Arrays.asList(randomEmbedding(16), randomEmbedding(16)), 10);
+
+        // then
+        assertThat(store.size()).isEqualTo(100);
+        assertThat(store.exactSearch(EmbeddingSearchRequest.builder()
+                .queryEmbedding(randomEmbedding(16))
+                .maxResults(100)
+                .build()).matches()).hasSize(100);
+        assertThat(report.recall()).isGreaterThan(0.9);
+    }
+
+    @Test
+    void should_scan_the_store_when_searching_with_a_filter() {
+        // given
+        HnswEmbeddingStore store = HnswEmbeddingStore.builder().build();
+        store.add(Embedding.from(new float[]{1, 0}), TextSegment.from("news", Metadata.from("source", "news")));
+        store.add(Embedding.from(new float[]{0, 1}), TextSegment.from("paper", Metadata.from("source", "paper")));
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = store.search(EmbeddingSearchRequest.builder()
+                .queryEmbedding(Embedding.from(new float[]{1, 0}))
+                .maxResults(2)
+                .filter(metadataKey("source").isEqualTo("paper"))
+                .build()).matches();
+
+        // then
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).embedded().text()).isEqualTo("paper");
+    }
+
+    private Embedding randomEmbedding(int dimension) {
+        float[] vector = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+}
@@ -0,0 +1,83 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestedDocumentsTest {
+
+    private final AtomicInteger embeddedSegments = new AtomicInteger();
+
+    // Embeds each segment as (length, 1), enough to tell segments apart
+    private final EmbeddingModel embeddingModel = segments -> {
+        embeddedSegments.addAndGet(segments.size());
+        return Response.from(segments.stream()
+                .map(segment -> Embedding.from(new float[]{segment.text().length(), 1}))
+                .collect(toList()));
+    };
+
+    private final ConcurrentEmbeddingStore store = new ConcurrentEmbeddingStore();
+    private final Bm25Index lexicalIndex = new Bm25Index();
+    private final IngestedDocuments documents = new IngestedDocuments(
+            ParallelIngestor.builder()
+                    .documentSplitter(DocumentSplitters.recursive(30, 0))
+                    .embeddingModel(embeddingModel)
+                    .batchSize(2)
+                    .build(),
+            store,
+            lexicalIndex);
+
+    private final Document agents = Document.from("Agents plan their tasks. Agents keep a memory.");
+    private final Document weather = Document.from("The weather is sunny. Tomorrow it rains.");
+
+    @Test
+    void should_only_embed_documents_not_ingested_yet() {
+        // given
+        documents.add(Collections.singletonList(agents));
+        int embeddedBefore = embeddedSegments.get();
+
+        // when
+        IngestionReport report = documents.add(Arrays.asList(agents, weather));
+
+        // then
+        assertThat(report.documents()).isEqualTo(1);
+        assertThat(embeddedSegments.get() - embeddedBefore).isEqualTo(2);
+        assertThat(documents.size()).isEqualTo(2);
+        assertThat(store.size()).isEqualTo(4);
+        assertThat(lexicalIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void should_remove_the_segments_of_removed_documents() {
+        // given
+        documents.add(Arrays.asList(agents, weather));
+
+        // when
+        int removed = documents.remove(Arrays.asList(weather, Document.from("Never ingested.")));
+
+        // then
+        assertThat(removed).isEqualTo(1);
+        assertThat(documents.size()).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(2);
+        List<String> stored = store.findRelevant(Embedding.from(new float[]{1, 1}), 10, 0.0).stream()
+                .map(match -> match.embedded().text())
+                .collect(toList());
+        assertThat(stored).hasSize(2);
+        assertThat(stored).contains("Agents plan their tasks.");
+        assertThat(stored).contains("Agents keep a memory.");
+        assertThat(lexicalIndex.search("weather sunny", 10)).isEmpty();
+        assertThat(lexicalIndex.search("memory", 10)).hasSize(1);
+    }
+}
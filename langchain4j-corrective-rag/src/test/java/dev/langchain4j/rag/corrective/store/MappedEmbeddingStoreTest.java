@@ -0,0 +1,73 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedEmbeddingStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void should_find_segments_written_to_snapshot() throws Exception {
+        // given
+        Path file = tempDir.resolve("documents.snapshot");
+        TextSegment agents = TextSegment.from("Agents plan with memory.", Metadata.from("page", 3));
+        TextSegment weather = TextSegment.from("The weather is sunny.", Metadata.from("source", "news"));
+        EmbeddingSnapshot.write(file,
+                Arrays.asList("agents", "weather"),
+                Arrays.asList(Embedding.from(new float[]{1, 0, 0}), Embedding.from(new float[]{0, 1, 0})),
+                Arrays.asList(agents, weather));
+
+        // when
+        MappedEmbeddingStore store = MappedEmbeddingStore.load(file);
+        List<EmbeddingMatch<TextSegment>> matches = store.findRelevant(Embedding.from(new float[]{0.9f, 0.1f, 0}), 2, 0.0);
+
+        // then
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(matches).hasSize(2);
+        assertThat(matches.get(0).embeddingId()).isEqualTo("agents");
+        assertThat(matches.get(0).embedded()).isEqualTo(agents);
+        assertThat(matches.get(1).embedded()).isEqualTo(weather);
+        assertThat(matches.get(0).score()).isGreaterThan(matches.get(1).score());
+    }
+
+    @Test
+    void should_apply_max_results_and_min_score() throws Exception {
+        // given
+        Path file = tempDir.resolve("documents.snapshot");
+        EmbeddingSnapshot.write(file,
+                Arrays.asList("a", "b", "c"),
+                Arrays.asList(Embedding.from(new float[]{1, 0}), Embedding.from(new float[]{0.8f, 0.2f}), Embedding.from(new float[]{-1, 0})),
+                Arrays.asList(TextSegment.from("a"), TextSegment.from("b"), TextSegment.from("c")));
+        MappedEmbeddingStore store = MappedEmbeddingStore.load(file);
+
+        // when
+        List<EmbeddingMatch<TextSegment>> top = store.findRelevant(Embedding.from(new float[]{1, 0}), 1, 0.0);
+        List<EmbeddingMatch<TextSegment>> relevant = store.findRelevant(Embedding.from(new float[]{1, 0}), 3, 0.6);
+
+        // then
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).embeddingId()).isEqualTo("a");
+        assertThat(relevant).hasSize(2);
+        assertThatThrownBy(() -> store.add(Embedding.from(new float[]{1, 0})))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void should_change_fingerprint_with_splitter_settings() {
+        assertThat(EmbeddingSnapshot.fingerprint(Arrays.asList(), "recursive(250, 0)", "model"))
+                .isNotEqualTo(EmbeddingSnapshot.fingerprint(Arrays.asList(), "recursive(500, 0)", "model"));
+    }
+}
@@ -0,0 +1,91 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapEmbeddingStoreTest {
+
+    private final Random random = new Random(42);
+
+    @Test
+    void should_return_the_same_matches_as_a_float_store_after_rerank() {
+        // given
+        OffHeapEmbeddingStore offHeap = OffHeapEmbeddingStore.builder().build();
+        ConcurrentEmbeddingStore reference = new ConcurrentEmbeddingStore();
+        for (int i = 0; i < 5000; i++) {
+            Embedding embedding = randomEmbedding(64);
+            TextSegment segment = TextSegment.from("segment " + i);
+            offHeap.add(embedding, segment);
+            reference.add(embedding, segment);
+        }
+
+        for (int q = 0; q < 20; q++) {
+            // when
+            Embedding query = randomEmbedding(64);
+            List<EmbeddingMatch<TextSegment>> matches = offHeap.findRelevant(query, 5, 0.0);
+            List<EmbeddingMatch<TextSegment>> expected = reference.findRelevant(query, 5, 0.0);
+
+            // then
+            assertThat(matches).hasSize(5);
+            for (int i = 0; i < 5; i++) {
+                assertThat(matches.get(i).embedded()).isEqualTo(expected.get(i).embedded());
+                assertThat(Math.abs(matches.get(i).score() - expected.get(i).score())).isLessThanOrEqualTo(1e-5);
+            }
+        }
+        assertThat(offHeap.size()).isEqualTo(5000);
+    }
+
+    @Test
+    void should_approximate_scores_without_rerank() {
+        // given
+        OffHeapEmbeddingStore store = OffHeapEmbeddingStore.builder().rerank(false).build();
+        Embedding embedding = randomEmbedding(384);
+        store.add(embedding, TextSegment.from("only"));
+
+        // when
+        List<EmbeddingMatch<TextSegment>> matches = store.findRelevant(embedding, 1, 0.0);
+
+        // then
+        assertThat(matches).hasSize(1);
+        assertThat(Math.abs(matches.get(0).score() - 1.0)).isLessThanOrEqualTo(1e-3);
+        float[] restored = matches.get(0).embedding().vector();
+        for (int d = 0; d < 384; d++) {
+            assertThat(Math.abs(restored[d] - embedding.vector()[d])).isLessThanOrEqualTo(0.05);
+        }
+        assertThat(store.vectorBytes()).isEqualTo(4096L * (384 + 8));
+    }
+
+    @Test
+    void should_skip_removed_embeddings() {
+        // given
+        OffHeapEmbeddingStore store = OffHeapEmbeddingStore.builder().quantized(false).build();
+        List<String> ids = store.addAll(
+                Arrays.asList(Embedding.from(new float[]{1, 0}), Embedding.from(new float[]{0.9f, 0.1f})),
+                Arrays.asList(TextSegment.from("a"), TextSegment.from("b")));
+
+        // when
+        store.removeAll(ids.subList(0, 1));
+
+        // then
+        List<EmbeddingMatch<TextSegment>> matches = store.findRelevant(Embedding.from(new float[]{1, 0}), 2, 0.0);
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).embedded().text()).isEqualTo("b");
+    }
+
+    private Embedding randomEmbedding(int dimension) {
+        float[] vector = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        return Embedding.from(vector);
+    }
+}
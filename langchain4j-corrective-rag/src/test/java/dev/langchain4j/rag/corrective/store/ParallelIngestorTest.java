@@ -0,0 +1,80 @@
+package dev.langchain4j.rag.corrective.store;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
+import dev.langchain4j.model.embedding.EmbeddingModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.store.embedding.EmbeddingMatch;
+import dev.langchain4j.store.embedding.inmemory.InMemoryEmbeddingStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelIngestorTest {
+
+    private final AtomicInteger embedCalls = new AtomicInteger();
+
+    // Embeds each segment as (length, 1), enough to tell segments apart
+    private final EmbeddingModel embeddingModel = segments -> {
+        embedCalls.incrementAndGet();
+        return Response.from(segments.stream()
+                .map(segment -> Embedding.from(new float[]{segment.text().length(), 1}))
+                .collect(toList()));
+    };
+
+    @Test
+    void should_embed_all_segments_in_batches() {
+        // given
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            documents.add(Document.from("Document " + i + ". It has two sentences."));
+        }
+        List<IngestionReport> progress = Collections.synchronizedList(new ArrayList<>());
+        ParallelIngestor ingestor = ParallelIngestor.builder()
+                .documentSplitter(DocumentSplitters.recursive(30, 0))
+                .embeddingModel(embeddingModel)
+                .batchSize(3)
+                .parallelism(4)
+                .progressListener(progress::add)
+                .build();
+        InMemoryEmbeddingStore<TextSegment> store = new InMemoryEmbeddingStore<>();
+
+        // when
+        IngestionReport report = ingestor.ingest(documents, store);
+
+        // then
+        assertThat(report.documents()).isEqualTo(10);
+        assertThat(report.segments()).isEqualTo(20);
+        assertThat(report.isComplete()).isTrue();
+        assertThat(report.batches()).isEqualTo(7);
+        assertThat(embedCalls.get()).isEqualTo(7);
+        assertThat(progress).hasSize(7);
+        List<EmbeddingMatch<TextSegment>> stored = store.findRelevant(Embedding.from(new float[]{1, 1}), 100, 0.0);
+        assertThat(stored).hasSize(20);
+    }
+
+    @Test
+    void should_propagate_embedding_failures() {
+        // given
+        ParallelIngestor ingestor = ParallelIngestor.builder()
+                .documentSplitter(DocumentSplitters.recursive(30, 0))
+                .embeddingModel(segments -> {
+                    throw new IllegalStateException("model unavailable");
+                })
+                .build();
+
+        // then
+        assertThatThrownBy(() -> ingestor.ingest(Collections.singletonList(Document.from("Some text.")), new InMemoryEmbeddingStore<>()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("model unavailable");
+    }
+}
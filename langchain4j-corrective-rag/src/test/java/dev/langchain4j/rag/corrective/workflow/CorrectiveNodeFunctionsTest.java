@@ -0,0 +1,396 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.rag.content.Content;
+import dev.langchain4j.rag.content.retriever.ContentRetriever;
+import dev.langchain4j.rag.corrective.limit.Deadline;
+import dev.langchain4j.rag.corrective.replay.Interaction;
+import dev.langchain4j.rag.corrective.replay.InteractionRecorder;
+import dev.langchain4j.rag.corrective.replay.InteractionType;
+import dev.langchain4j.rag.corrective.replay.ReplayLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorrectiveNodeFunctionsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch rewriteStarted = new CountDownLatch(1);
+    private final List<String> webQueries = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger gradingCalls = new AtomicInteger();
+
+    // Grades documents about the weather as not relevant, and holds the next grade until the rewrite has started
+    private final ChatLanguageModel chatLanguageModel = new ChatLanguageModel() {
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            String prompt = ((UserMessage) messages.get(0)).singleText();
+            if (prompt.contains("question re-writer")) {
+                rewriteStarted.countDown();
+                return Response.from(AiMessage.from("better question"));
+            }
+            gradingCalls.incrementAndGet();
+            if (prompt.contains("weather")) {
+                return Response.from(AiMessage.from("{'score': 'no'}"));
+            }
+            if (prompt.contains("slow")) {
+                try {
+                    assertThat(rewriteStarted.await(5, TimeUnit.SECONDS)).isTrue();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return Response.from(AiMessage.from("{'score': 'yes'}"));
+        }
+    };
+
+    private final ContentRetriever webSearchContentRetriever = query -> {
+        webQueries.add(query.text());
+        return Collections.singletonList(Content.from("web result"));
+    };
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void should_start_fallback_while_grading_when_a_document_is_not_relevant() {
+        // given
+        CorrectiveNodeFunctions functions = nodeFunctions(SpeculativeFallback.ON_FIRST_IRRELEVANT);
+        CorrectiveStatefulBean state = state("What is CRAG?", "The weather is sunny.", "A slow but relevant document.");
+
+        // when
+        functions.gradeDocuments(state);
+        functions.transformQuery(state);
+        functions.webSearch(state);
+
+        // then
+        assertThat(state.getWebSearch()).isEqualTo("Yes");
+        assertThat(state.getQuestion()).isEqualTo("better question");
+        assertThat(state.getDocuments()).containsExactly("A slow but relevant document.", "web result");
+        assertThat(webQueries).containsExactly("better question");
+        assertThat(state.getSpeculativeWebSearchResults()).isNull();
+    }
+
+    @Test
+    void should_not_start_fallback_when_all_documents_are_relevant() {
+        // given
+        CorrectiveNodeFunctions functions = nodeFunctions(SpeculativeFallback.ON_FIRST_IRRELEVANT);
+        CorrectiveStatefulBean state = state("What is CRAG?", "CRAG grades documents.");
+
+        // when
+        functions.gradeDocuments(state);
+
+        // then
+        assertThat(state.getWebSearch()).isEqualTo("No");
+        assertThat(state.getSpeculativeQuestion()).isNull();
+        assertThat(rewriteStarted.getCount()).isEqualTo(1L);
+        assertThat(webQueries).isEmpty();
+    }
+
+    @Test
+    void should_discard_immediate_fallback_when_all_documents_are_relevant() {
+        // given
+        CorrectiveNodeFunctions functions = nodeFunctions(SpeculativeFallback.IMMEDIATE);
+        CorrectiveStatefulBean state = state("What is CRAG?", "A slow but relevant document.");
+
+        // when
+        functions.gradeDocuments(state);
+
+        // then
+        assertThat(state.getWebSearch()).isEqualTo("No");
+        assertThat(state.getDocuments()).containsExactly("A slow but relevant document.");
+        assertThat(state.getSpeculativeQuestion()).isNull();
+        assertThat(state.getSpeculativeWebSearchResults()).isNull();
+    }
+
+    @Test
+    void should_not_hold_an_executor_thread_while_the_speculative_rewrite_runs() throws Exception {
+        // given
+        ExecutorService twoThreads = Executors.newFixedThreadPool(2);
+        CountDownLatch releaseRewrite = new CountDownLatch(1);
+        ChatLanguageModel slowRewrite = messages -> {
+            if (((UserMessage) messages.get(0)).singleText().contains("question re-writer")) {
+                try {
+                    assertThat(releaseRewrite.await(5, TimeUnit.SECONDS)).isTrue();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return Response.from(AiMessage.from("better question"));
+            }
+            return Response.from(AiMessage.from("{'score': 'no'}"));
+        };
+        CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(slowRewrite)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withExecutor(twoThreads)
+                .withSpeculativeFallback(SpeculativeFallback.IMMEDIATE)
+                .build();
+        CorrectiveStatefulBean state = state("What is CRAG?", "The weather is sunny.");
+
+        try {
+            functions.gradeDocuments(state);
+
+            // when
+            Future<String> probe = twoThreads.submit(() -> "free");
+
+            // then
+            assertThat(probe.get(1, TimeUnit.SECONDS)).isEqualTo("free");
+            releaseRewrite.countDown();
+            functions.transformQuery(state);
+            functions.webSearch(state);
+        } finally {
+            releaseRewrite.countDown();
+            twoThreads.shutdownNow();
+        }
+        assertThat(state.getDocuments()).containsExactly("web result");
+        assertThat(webQueries).containsExactly("better question");
+    }
+
+    @Test
+    void should_only_grade_documents_between_score_thresholds() {
+        // given
+        CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(chatLanguageModel)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withAutoAcceptScore(0.85)
+                .withAutoRejectScore(0.65)
+                .build();
+        CorrectiveStatefulBean state = state("What is CRAG?", "CRAG grades documents.", "CRAG is a dog name.", "The weather is sunny.", "CRAG falls back to web search.");
+        state.setDocumentScores(new ArrayList<>(Arrays.asList(0.9, 0.6, 0.7, null)));
+
+        // when
+        functions.gradeDocuments(state);
+
+        // then
+        assertThat(gradingCalls.get()).isEqualTo(2);
+        assertThat(state.getWebSearch()).isEqualTo("Yes");
+        assertThat(state.getDocuments()).containsExactly("CRAG grades documents.", "CRAG falls back to web search.");
+        assertThat(state.getDocumentScores()).containsExactly(0.9, null);
+        assertThat(functions.triageStats().accepted()).isEqualTo(1L);
+        assertThat(functions.triageStats().rejected()).isEqualTo(1L);
+        assertThat(functions.triageStats().graded()).isEqualTo(2L);
+        assertThat(functions.triageStats().savedCalls()).isEqualTo(2L);
+    }
+
+    @Test
+    void should_keep_ungraded_documents_and_skip_web_search_when_the_deadline_is_exceeded() {
+        // given
+        CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(chatLanguageModel)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withExecutor(executor)
+                .withGradingConcurrency(2)
+                .build();
+        CorrectiveStatefulBean state = state("What is CRAG?", "The weather is sunny.", "A slow but relevant document.");
+        state.setDeadline(Deadline.after(Duration.ofMillis(200)));
+
+        // when
+        long start = System.nanoTime();
+        functions.gradeDocuments(state);
+        functions.transformQuery(state);
+        functions.webSearch(state);
+
+        // then
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(2000L);
+        assertThat(state.getWebSearch()).isEqualTo("Yes");
+        assertThat(state.getQuestion()).isEqualTo("What is CRAG?");
+        assertThat(state.getDocuments()).containsExactly("A slow but relevant document.");
+        assertThat(webQueries).isEmpty();
+        assertThat(state.isDegraded()).isTrue();
+    }
+
+    @Test
+    void should_grade_concurrently_in_document_order_within_concurrency() {
+        // given
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ChatLanguageModel slowModel = messages -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return chatLanguageModel.generate(messages);
+        };
+        CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(slowModel)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withExecutor(executor)
+                .withGradingConcurrency(3)
+                .build();
+        CorrectiveStatefulBean state = state("What is CRAG?", "CRAG 1.", "The weather 2.", "CRAG 3.", "CRAG 4.", "The weather 5.", "CRAG 6.", "CRAG 7.", "CRAG 8.");
+
+        // when
+        functions.gradeDocuments(state);
+
+        // then
+        assertThat(state.getDocuments()).containsExactly("CRAG 1.", "CRAG 3.", "CRAG 4.", "CRAG 6.", "CRAG 7.", "CRAG 8.");
+        assertThat(gradingCalls.get()).isEqualTo(8);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+        assertThat(maxInFlight.get()).isGreaterThan(1);
+    }
+
+    @Test
+    void should_grade_concurrently_when_no_executor_thread_is_free() throws Exception {
+        // given
+        ExecutorService busyExecutor = Executors.newFixedThreadPool(1);
+        CountDownLatch release = new CountDownLatch(1);
+        busyExecutor.submit(() -> release.await(5, TimeUnit.SECONDS));
+        CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(chatLanguageModel)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withExecutor(busyExecutor)
+                .withGradingConcurrency(4)
+                .build();
+        CorrectiveStatefulBean state = state("What is CRAG?", "CRAG 1.", "The weather 2.", "CRAG 3.");
+
+        // when
+        try {
+            functions.gradeDocuments(state);
+        } finally {
+            release.countDown();
+            busyExecutor.shutdownNow();
+        }
+
+        // then
+        assertThat(state.getDocuments()).containsExactly("CRAG 1.", "CRAG 3.");
+        assertThat(state.getWebSearch()).isEqualTo("Yes");
+    }
+
+    @Test
+    void should_grade_with_hedge_delay_on_a_fixed_executor() throws Exception {
+        // given
+        ExecutorService oneThread = Executors.newFixedThreadPool(1);
+        CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(chatLanguageModel)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withExecutor(oneThread)
+                .withGradingConcurrency(2)
+                .withHedgeDelay(Duration.ofMillis(50))
+                .build();
+        CorrectiveStatefulBean state = state("What is CRAG?", "CRAG 1.", "The weather 2.", "CRAG 3.", "CRAG 4.");
+
+        // when
+        try {
+            executor.submit(() -> functions.gradeDocuments(state)).get(5, TimeUnit.SECONDS);
+        } finally {
+            oneThread.shutdownNow();
+        }
+
+        // then
+        assertThat(state.getDocuments()).containsExactly("CRAG 1.", "CRAG 3.", "CRAG 4.");
+        assertThat(state.getWebSearch()).isEqualTo("Yes");
+    }
+
+    @Test
+    void should_grade_before_the_deadline_on_a_fixed_executor() throws Exception {
+        // given
+        ExecutorService oneThread = Executors.newFixedThreadPool(1);
+        CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(chatLanguageModel)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withExecutor(oneThread)
+                .withGradingConcurrency(2)
+                .build();
+        CorrectiveStatefulBean state = state("What is CRAG?", "CRAG 1.", "The weather 2.", "CRAG 3.", "CRAG 4.");
+        state.setDeadline(Deadline.after(Duration.ofSeconds(5)));
+
+        // when
+        try {
+            functions.gradeDocuments(state);
+        } finally {
+            oneThread.shutdownNow();
+        }
+
+        // then
+        assertThat(state.getDocuments()).containsExactly("CRAG 1.", "CRAG 3.", "CRAG 4.");
+        assertThat(state.isDegraded()).isFalse();
+    }
+
+    @Test
+    void should_record_the_winner_of_hedged_grading_calls_once() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowCallDone = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        // The first call ignores its cancellation, like a provider still answering a request already sent
+        ChatLanguageModel slowFirstCall = messages -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // completes anyway
+                }
+                slowCallDone.countDown();
+                return Response.from(AiMessage.from("{'score': 'no'}"));
+            }
+            return Response.from(AiMessage.from("{'score': 'yes'}"));
+        };
+        Path file = tempDir.resolve("interactions.log");
+        try (InteractionRecorder recorder = InteractionRecorder.builder().file(file).build()) {
+            CorrectiveNodeFunctions functions = new CorrectiveNodeFunctions.Builder()
+                    .withChatLanguageModel(slowFirstCall)
+                    .withWebSearchContentRetriever(webSearchContentRetriever)
+                    .withExecutor(executor)
+                    .withHedgeDelay(Duration.ofMillis(50))
+                    .withInteractionRecorder(recorder)
+                    .build();
+            CorrectiveStatefulBean state = state("What is CRAG?", "CRAG grades documents.");
+
+            // when
+            functions.gradeDocuments(state);
+            release.countDown();
+            assertThat(slowCallDone.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // then
+            assertThat(state.getDocuments()).containsExactly("CRAG grades documents.");
+            assertThat(calls.get()).isEqualTo(2);
+            assertThat(recorder.recorded()).isEqualTo(1L);
+        }
+        List<Interaction> modelCalls = ReplayLog.load(file).interactions(InteractionType.MODEL_CALL);
+        assertThat(modelCalls).hasSize(1);
+        assertThat(modelCalls.get(0).values()).containsExactly("{'score': 'yes'}");
+    }
+
+    private CorrectiveNodeFunctions nodeFunctions(SpeculativeFallback speculativeFallback) {
+        return new CorrectiveNodeFunctions.Builder()
+                .withChatLanguageModel(chatLanguageModel)
+                .withWebSearchContentRetriever(webSearchContentRetriever)
+                .withExecutor(executor)
+                .withSpeculativeFallback(speculativeFallback)
+                .build();
+    }
+
+    private static CorrectiveStatefulBean state(String question, String... documents) {
+        CorrectiveStatefulBean state = new CorrectiveStatefulBean();
+        state.setQuestion(question);
+        state.setDocuments(new ArrayList<>(Arrays.asList(documents)));
+        return state;
+    }
+}
@@ -0,0 +1,52 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradeVerdictsTest {
+
+    @Test
+    void should_parse_indexed_verdicts_wrapped_in_markdown() {
+        // given
+        String response = "```json\n[{\"index\": 1, \"score\": \"no\"}, {\"index\": 0, \"score\": \"Yes\"}]\n```";
+
+        // when
+        List<Boolean> grades = GradeVerdicts.parse(response, 2);
+
+        // then
+        assertThat(grades).containsExactly(true, false);
+    }
+
+    @Test
+    void should_use_response_order_when_index_is_missing() {
+        // given
+        String response = "[{'score': 'no'}, {'score': 'yes'}, {'score': 'yes'}]";
+
+        // when
+        List<Boolean> grades = GradeVerdicts.parse(response, 3);
+
+        // then
+        assertThat(grades).containsExactly(false, true, true);
+    }
+
+    @Test
+    void should_return_null_when_verdicts_do_not_match_documents() {
+        assertThat(GradeVerdicts.parse("[{\"index\": 0, \"score\": \"yes\"}]", 2)).isNull();
+        assertThat(GradeVerdicts.parse("[{\"index\": 0, \"score\": \"yes\"}, {\"index\": 0, \"score\": \"no\"}]", 2)).isNull();
+        assertThat(GradeVerdicts.parse("[{\"index\": 5, \"score\": \"yes\"}]", 1)).isNull();
+        assertThat(GradeVerdicts.parse("yes", 1)).isNull();
+    }
+
+    @Test
+    void should_grade_single_document_containing_yes_ignoring_case() {
+        assertThat(GradeVerdicts.isRelevant("{'score': 'yes'}")).isTrue();
+        assertThat(GradeVerdicts.isRelevant("{\"score\": \"YES\"}")).isTrue();
+        assertThat(GradeVerdicts.isRelevant("Relevant: yes")).isTrue();
+        assertThat(GradeVerdicts.isRelevant("The answer is \"yes\"")).isTrue();
+        assertThat(GradeVerdicts.isRelevant("{'score': 'No'}")).isFalse();
+        assertThat(GradeVerdicts.isRelevant(null)).isFalse();
+    }
+}
@@ -0,0 +1,98 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import dev.langchain4j.rag.corrective.limit.CallType;
+import dev.langchain4j.rag.corrective.limit.Deadline;
+import dev.langchain4j.rag.corrective.limit.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgedCallsTest {
+
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    // The first call hangs until released, the next ones answer at once
+    private final Supplier<String> call = () -> {
+        if (calls.incrementAndGet() == 1) {
+            try {
+                released.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return "slow";
+        }
+        return "fast";
+    };
+    private final Supplier<Optional<String>> hedge = () -> Optional.of(call.get());
+
+    @AfterEach
+    void release() {
+        released.countDown();
+    }
+
+    @Test
+    void should_return_the_hedge_when_the_call_is_slow() {
+        // given
+        HedgedCalls hedgedCalls = new HedgedCalls(Duration.ofMillis(50));
+
+        // when
+        String result = hedgedCalls.call(CallType.GRADE, call, hedge, null);
+
+        // then
+        assertThat(result).isEqualTo("fast");
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void should_wait_for_the_call_when_the_hedge_does_not_run() {
+        // given
+        HedgedCalls hedgedCalls = new HedgedCalls(Duration.ofMillis(50));
+        Supplier<Optional<String>> noPermitFree = () -> {
+            released.countDown();
+            return Optional.empty();
+        };
+
+        // when
+        String result = hedgedCalls.call(CallType.GRADE, call, noPermitFree, Deadline.after(Duration.ofSeconds(5)));
+
+        // then
+        assertThat(result).isEqualTo("slow");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_hedge_without_hedge_delay() {
+        // given
+        HedgedCalls hedgedCalls = new HedgedCalls(null);
+
+        // when
+        released.countDown();
+        String result = hedgedCalls.call(CallType.GRADE, call, hedge, Deadline.after(Duration.ofSeconds(5)));
+
+        // then
+        assertThat(result).isEqualTo("slow");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fail_when_the_deadline_is_exceeded() {
+        // given
+        HedgedCalls hedgedCalls = new HedgedCalls(null);
+        Deadline deadline = Deadline.after(Duration.ofMillis(100));
+
+        // when / then
+        assertThatThrownBy(() -> hedgedCalls.call(CallType.WEB_SEARCH, call, hedge, deadline))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(deadline.isExpired()).isTrue();
+    }
+}
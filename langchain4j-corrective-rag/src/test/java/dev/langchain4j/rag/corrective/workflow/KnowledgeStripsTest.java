@@ -0,0 +1,90 @@
+package dev.langchain4j.rag.corrective.workflow;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.Tokenizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnowledgeStripsTest {
+
+    private static final String AGENT = "An agent uses memory to remember past actions. " +
+            "Short-term memory is the context window, while long-term memory is an external vector store. " +
+            "Memory lets the agent plan across many steps.";
+    private static final String WEATHER = "The weather is sunny today. Tomorrow it will rain.";
+
+    @Test
+    void should_drop_duplicate_and_irrelevant_strips() {
+        // given
+        KnowledgeStrips strips = new KnowledgeStrips(null, 1000);
+
+        // when
+        String context = strips.refine("What are the types of agent memory?", Arrays.asList(AGENT, WEATHER, AGENT));
+
+        // then
+        assertThat(context).isEqualTo(AGENT);
+    }
+
+    @Test
+    void should_pack_most_relevant_strips_into_budget_in_original_order() {
+        // given
+        String planning = "Planning splits a task into subgoals.";
+        String memory = "Long-term memory of an agent stores embeddings in a vector store for later retrieval by similarity search.";
+        String tools = "Tool use lets the agent call external APIs.";
+        KnowledgeStrips strips = new KnowledgeStrips(null, 60);
+
+        // when
+        String context = strips.refine("How does agent memory use a vector store?",
+                Arrays.asList(planning + "\n\n" + tools, memory));
+
+        // then
+        assertThat(strips.tokens(context)).isLessThanOrEqualTo(60);
+        assertThat(context).contains(memory);
+        assertThat(context).doesNotContain(planning);
+        assertThat(context).isEqualTo(tools + "\n\n" + memory);
+    }
+
+    @Test
+    void should_truncate_strip_over_budget_with_tokenizer() {
+        // given
+        Tokenizer wordTokenizer = new Tokenizer() {
+            @Override
+            public int estimateTokenCountInText(String text) {
+                return text.trim().isEmpty() ? 0 : text.trim().split("\\s+").length;
+            }
+
+            @Override
+            public int estimateTokenCountInMessage(ChatMessage message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int estimateTokenCountInMessages(Iterable<ChatMessage> messages) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int estimateTokenCountInToolSpecifications(Iterable<ToolSpecification> toolSpecifications) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int estimateTokenCountInToolExecutionRequests(Iterable<ToolExecutionRequest> toolExecutionRequests) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        KnowledgeStrips strips = new KnowledgeStrips(wordTokenizer, 5);
+
+        // when
+        String context = strips.refine("What is agent memory?", Collections.singletonList(AGENT));
+
+        // then
+        assertThat(context.trim()).isEqualTo("An agent uses memory to");
+        assertThat(strips.tokens(context)).isLessThanOrEqualTo(5);
+    }
+}